@@ -0,0 +1,206 @@
+import java.util.*;
+import java.util.concurrent.RecursiveTask;
+
+// Class-level statistics gathered in a single pass over the students. Large
+// rosters are split across the fork-join pool and the partial results merged.
+class ClassSummary {
+    static final String[] BAND_LABELS = {"A (90-100)", "B (80-89)", "C (70-79)", "D (60-69)", "F (0-59)"};
+    private static final double[] BAND_LOWER_BOUNDS = {90, 80, 70, 60, 0};
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final int SPLIT_SIZE = 2_048;
+
+    private final int studentCount;
+    private final double classAverage;
+    private final double averageStandardDeviation;
+    private final double highestGrade;
+    private final double lowestGrade;
+    private final long gradeCount;
+    private final double gradeMean;
+    private final double gradeStandardDeviation;
+    private final int[] bandCounts;
+    private final double[] sortedAverages;
+
+    private ClassSummary(Partial totals, double[] sortedAverages) {
+        this.studentCount = totals.students;
+        this.classAverage = totals.averageMean;
+        this.averageStandardDeviation = totals.students == 0 ? 0 : Math.sqrt(totals.averageM2 / totals.students);
+        this.highestGrade = totals.students == 0 ? 0 : totals.highest;
+        this.lowestGrade = totals.students == 0 ? 0 : totals.lowest;
+        this.gradeCount = totals.grades;
+        this.gradeMean = totals.gradeMean;
+        this.gradeStandardDeviation = totals.grades == 0 ? 0 : Math.sqrt(totals.gradeM2 / totals.grades);
+        this.bandCounts = totals.bands;
+        this.sortedAverages = sortedAverages;
+    }
+
+    public static ClassSummary of(List<Student> students) {
+        return of(students, students.size() >= PARALLEL_THRESHOLD);
+    }
+
+    public static ClassSummary of(List<Student> students, boolean parallel) {
+        // Indexed access below; copying once beats walking a LinkedList per task
+        List<Student> roster = students instanceof RandomAccess ? students : new ArrayList<>(students);
+        double[] averages = new double[roster.size()];
+        Partial totals;
+        if (parallel) {
+            totals = new SummaryTask(roster, averages, 0, roster.size()).invoke();
+            Arrays.parallelSort(averages);
+        } else {
+            totals = new Partial();
+            for (int i = 0; i < roster.size(); i++) {
+                averages[i] = totals.add(roster.get(i));
+            }
+            Arrays.sort(averages);
+        }
+        return new ClassSummary(totals, averages);
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    // Mean of the students' averages, so every student weighs the same
+    public double getClassAverage() {
+        return classAverage;
+    }
+
+    public double getAverageStandardDeviation() {
+        return averageStandardDeviation;
+    }
+
+    public double getHighestGrade() {
+        return highestGrade;
+    }
+
+    public double getLowestGrade() {
+        return lowestGrade;
+    }
+
+    public long getGradeCount() {
+        return gradeCount;
+    }
+
+    // Mean of every grade in the class, so students with more grades weigh more
+    public double getGradeMean() {
+        return gradeMean;
+    }
+
+    public double getGradeStandardDeviation() {
+        return gradeStandardDeviation;
+    }
+
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    // Percentile of the student averages, interpolating between neighbouring ranks
+    public double getPercentile(double percentile) {
+        if (sortedAverages.length == 0) return 0;
+        double rank = Math.max(0, Math.min(100, percentile)) / 100 * (sortedAverages.length - 1);
+        int below = (int) Math.floor(rank);
+        int above = Math.min(below + 1, sortedAverages.length - 1);
+        return sortedAverages[below] + (rank - below) * (sortedAverages[above] - sortedAverages[below]);
+    }
+
+    // Students per grade band of their average, in the order of BAND_LABELS
+    public int[] getBandCounts() {
+        return bandCounts.clone();
+    }
+
+    static int bandOf(double average) {
+        for (int band = 0; band < BAND_LOWER_BOUNDS.length - 1; band++) {
+            if (average >= BAND_LOWER_BOUNDS[band]) {
+                return band;
+            }
+        }
+        return BAND_LOWER_BOUNDS.length - 1;
+    }
+
+    // Mergeable running statistics; Welford per element, Chan et al. to combine
+    private static final class Partial {
+        int students;
+        double averageMean;
+        double averageM2;
+        double highest = Double.NEGATIVE_INFINITY;
+        double lowest = Double.POSITIVE_INFINITY;
+        long grades;
+        double gradeMean;
+        double gradeM2;
+        final int[] bands = new int[BAND_LABELS.length];
+
+        double add(Student student) {
+            double average = student.calculateAverage();
+            students++;
+            double delta = average - averageMean;
+            averageMean += delta / students;
+            averageM2 += delta * (average - averageMean);
+            highest = Math.max(highest, student.getHighestGrade());
+            lowest = Math.min(lowest, student.getLowestGrade());
+            bands[bandOf(average)]++;
+
+            int count = student.getGradeCount();
+            if (count > 0) {
+                mergeGrades(count, average, student.getVariance() * count);
+            }
+            return average;
+        }
+
+        void merge(Partial other) {
+            if (other.students == 0) return;
+            int total = students + other.students;
+            double delta = other.averageMean - averageMean;
+            averageMean += delta * other.students / total;
+            averageM2 += other.averageM2 + delta * delta * students * other.students / total;
+            students = total;
+            highest = Math.max(highest, other.highest);
+            lowest = Math.min(lowest, other.lowest);
+            for (int band = 0; band < bands.length; band++) {
+                bands[band] += other.bands[band];
+            }
+            if (other.grades > 0) {
+                mergeGrades(other.grades, other.gradeMean, other.gradeM2);
+            }
+        }
+
+        private void mergeGrades(long count, double mean, double m2) {
+            long total = grades + count;
+            double delta = mean - gradeMean;
+            gradeMean += delta * count / total;
+            gradeM2 += m2 + delta * delta * grades * count / total;
+            grades = total;
+        }
+    }
+
+    private static final class SummaryTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Student> students;
+        private final double[] averages;
+        private final int from;
+        private final int to;
+
+        SummaryTask(List<Student> students, double[] averages, int from, int to) {
+            this.students = students;
+            this.averages = averages;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= SPLIT_SIZE) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    averages[i] = partial.add(students.get(i));
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            SummaryTask right = new SummaryTask(students, averages, middle, to);
+            right.fork();
+            Partial left = new SummaryTask(students, averages, from, middle).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Streams "student,course,grade" rows from a CSV or TSV file into the roster.
+// The roster keeps one grade list per student, so the course is only checked
+// to be present and is not stored; grades from every course go to the student.
+// The file is read through one reused buffer and each line is parsed in place,
+// so memory use does not grow with the file. Students are resolved through the
+// registry's name index; consecutive rows for the same student reuse the lookup
+// and are added to it as one batch.
+// Fields may be double-quoted ("Smith, Jane"); quoted fields cannot span lines.
+// With a store, new students and each batch of grades are appended to it,
+// buffered so that files alternating between students are not written a row
+// at a time.
+class GradeImporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    static class Result {
+        long rows;
+        long imported;
+        long rejected;
+        int studentsCreated;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + line + ": " + reason);
+            }
+        }
+    }
+
+    private final StudentRegistry registry;
+    private final GradeStore store;
+    private final Result result = new Result();
+
+    // Reused for every line
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private final int[] fieldStart = new int[3];
+    private final int[] fieldEnd = new int[3];
+
+    // The batch of grades waiting to be added to the current student
+    private byte[] currentName = new byte[64];
+    private int currentNameLength = -1;
+    private Student current;
+    private double[] batch = new double[256];
+    private int batchSize;
+
+    private GradeImporter(StudentRegistry registry, GradeStore store) {
+        this.registry = registry;
+        this.store = store;
+    }
+
+    // Students not yet in the registry are added to it; a null store imports into memory only
+    static Result importFile(Path path, StudentRegistry registry, GradeStore store) throws IOException {
+        GradeImporter importer = new GradeImporter(registry, store);
+        if (store != null) {
+            store.startBatch();
+        }
+        try {
+            importer.read(path);
+        } finally {
+            // Rows already in the registry are saved even if reading failed part way
+            if (store != null) {
+                store.finishBatch();
+            }
+        }
+        return importer.result;
+    }
+
+    private void read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        byte delimiter = 0;
+        long lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean end = false;
+            while (!end) {
+                end = channel.read(buffer) < 0;
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b != '\n') {
+                        appendToLine(b);
+                        continue;
+                    }
+                    lineNumber++;
+                    if (delimiter == 0) {
+                        delimiter = detectDelimiter();
+                    }
+                    parseLine(lineNumber, delimiter);
+                    lineLength = 0;
+                }
+                buffer.clear();
+            }
+            if (lineLength > 0) {
+                lineNumber++;
+                parseLine(lineNumber, delimiter == 0 ? detectDelimiter() : delimiter);
+            }
+        }
+        flushBatch();
+    }
+
+    private void appendToLine(byte b) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+
+    private byte detectDelimiter() {
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == '\t') return '\t';
+        }
+        return ',';
+    }
+
+    private void parseLine(long lineNumber, byte delimiter) throws IOException {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        if (isBlank(0, length)) {
+            return;
+        }
+        result.rows++;
+
+        int fields = splitFields(length, delimiter);
+        if (fields != 3) {
+            result.reject(lineNumber, "expected 3 fields (student, course, grade), found " + fields);
+            return;
+        }
+        double grade = parseGrade(fieldStart[2], fieldEnd[2]);
+        if (Double.isNaN(grade)) {
+            if (lineNumber == 1) {
+                // Header row
+                result.rows--;
+                return;
+            }
+            result.reject(lineNumber, "grade is not a number");
+            return;
+        }
+        if (grade < 0 || grade > 100) {
+            result.reject(lineNumber, "grade " + grade + " is outside 0-100");
+            return;
+        }
+        if (fieldStart[0] == fieldEnd[0]) {
+            result.reject(lineNumber, "student name is empty");
+            return;
+        }
+        // Checked so malformed rows are reported, but not kept (see the class comment)
+        if (fieldStart[1] == fieldEnd[1]) {
+            result.reject(lineNumber, "course is empty");
+            return;
+        }
+
+        selectStudent(fieldStart[0], fieldEnd[0]);
+        if (batchSize == batch.length) {
+            flushBatch();
+        }
+        batch[batchSize++] = grade;
+        result.imported++;
+    }
+
+    // Records trimmed field bounds in fieldStart/fieldEnd; returns the field count
+    private int splitFields(int length, byte delimiter) {
+        int fields = 0;
+        int pos = 0;
+        while (pos <= length) {
+            int start = pos;
+            int end;
+            if (start < length && line[start] == '"') {
+                // Unquote into the line itself; the result is never longer than the source
+                int write = start;
+                pos = start + 1;
+                while (pos < length) {
+                    if (line[pos] == '"') {
+                        if (pos + 1 < length && line[pos + 1] == '"') {
+                            line[write++] = '"';
+                            pos += 2;
+                            continue;
+                        }
+                        pos++;
+                        break;
+                    }
+                    line[write++] = line[pos++];
+                }
+                end = write;
+                while (pos < length && line[pos] != delimiter) {
+                    pos++;
+                }
+            } else {
+                while (pos < length && line[pos] != delimiter) {
+                    pos++;
+                }
+                end = pos;
+            }
+            if (fields < fieldStart.length) {
+                while (start < end && line[start] <= ' ') start++;
+                while (end > start && line[end - 1] <= ' ') end--;
+                fieldStart[fields] = start;
+                fieldEnd[fields] = end;
+            }
+            fields++;
+            pos++;
+        }
+        return fields;
+    }
+
+    // Plain decimals are parsed straight from the bytes; anything else goes through Double
+    private double parseGrade(int from, int to) {
+        if (from == to) return Double.NaN;
+        long digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (int i = from; i < to; i++) {
+            byte b = line[i];
+            if (b >= '0' && b <= '9' && i - from < 15) {
+                digits = digits * 10 + (b - '0');
+                if (seenPoint) scale++;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                try {
+                    return Double.parseDouble(new String(line, from, to - from, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+            }
+        }
+        if (seenPoint && to - from == 1) return Double.NaN;
+        return digits / Math.pow(10, scale);
+    }
+
+    private void selectStudent(int from, int to) throws IOException {
+        int length = to - from;
+        if (length == currentNameLength && Arrays.equals(line, from, to, currentName, 0, length)) {
+            return;
+        }
+        flushBatch();
+        String name = new String(line, from, length, StandardCharsets.UTF_8);
+        Student student = registry.findByName(name);
+        if (student == null) {
+            student = registry.add(name);
+            if (store != null) {
+                store.appendStudent(student);
+            }
+            result.studentsCreated++;
+        }
+        current = student;
+        if (length > currentName.length) {
+            currentName = new byte[Math.max(length, currentName.length * 2)];
+        }
+        System.arraycopy(line, from, currentName, 0, length);
+        currentNameLength = length;
+    }
+
+    private void flushBatch() throws IOException {
+        if (batchSize > 0) {
+            current.addGrades(batch, 0, batchSize);
+            if (store != null) {
+                store.appendGrades(current, batch, 0, batchSize);
+            }
+            batchSize = 0;
+        }
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] > ' ') return false;
+        }
+        return true;
+    }
+}
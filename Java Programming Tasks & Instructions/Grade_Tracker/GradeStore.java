@@ -0,0 +1,376 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+// Saves the roster as a compact snapshot plus an append-only log of changes
+// made since. Adding a student or a grade appends one small record instead of
+// rewriting the store; once the log outgrows the snapshot it is folded into a
+// new one. Snapshots are read through a memory mapping, with each student's
+// grades copied out in one bulk get.
+//
+// grades.snapshot  header: magic, version, generation, student count,
+//                          CRC32C of the header fields before it and the body
+//                  body:   per student, name length, UTF-8 name, grade count, grades
+// grades.log       header: magic, generation
+//                  then records of [length][CRC32C][type, payload]
+//
+// A log whose generation is older than the snapshot's was already folded in,
+// which covers a crash between writing a snapshot and resetting the log.
+// Records are handed to the operating system on every append, or a buffer at
+// a time between startBatch and finishBatch, and forced to disk when the store
+// is compacted or closed.
+//
+// Version 1 snapshots checksum the body only and are still readable.
+class GradeStore implements Closeable {
+    private static final String SNAPSHOT_FILE = "grades.snapshot";
+    private static final String LOG_FILE = "grades.log";
+    private static final int SNAPSHOT_MAGIC = 0x47545331;
+    private static final int LOG_MAGIC = 0x47544C31;
+    private static final int VERSION = 2;
+    private static final int BODY_CHECKSUM_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 24;
+    private static final int LOG_HEADER_SIZE = 12;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+    private static final int BATCH_BUFFER_SIZE = 256 * 1024;
+
+    private static final byte STUDENT_ADDED = 1;
+    private static final byte GRADES_ADDED = 2;
+
+    private final Path directory;
+    private final Supplier<List<Student>> roster;
+    private FileChannel log;
+    private long generation;
+    private long logBytes;
+    private long snapshotBytes;
+    private ByteBuffer record = ByteBuffer.allocate(256);
+    // Non-null during a batch; holds records not yet written to the log
+    private ByteBuffer batch;
+
+    GradeStore(Path directory, Supplier<List<Student>> roster) {
+        this.directory = directory;
+        this.roster = roster;
+    }
+
+    // Rebuilds the roster from the snapshot and log, then opens the log for appends
+    List<Student> load() throws IOException {
+        Files.createDirectories(directory);
+        List<Student> students = new ArrayList<>();
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            generation = readSnapshot(snapshot, students);
+            snapshotBytes = Files.size(snapshot);
+        }
+
+        Path logPath = directory.resolve(LOG_FILE);
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = replayLog(students);
+        if (validLength < 0) {
+            resetLog();
+        } else {
+            // Drops a torn record left by a crash so new records follow the last good one
+            log.truncate(validLength);
+            log.position(validLength);
+            logBytes = validLength;
+        }
+        return students;
+    }
+
+    void appendStudent(Student student) throws IOException {
+        byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = payload(1 + 4 + 4 + name.length);
+        payload.put(STUDENT_ADDED).putInt(student.getId()).putInt(name.length).put(name);
+        append(payload);
+    }
+
+    void appendGrade(Student student, double grade) throws IOException {
+        ByteBuffer payload = payload(1 + 4 + 4 + 8);
+        payload.put(GRADES_ADDED).putInt(student.getId()).putInt(1).putDouble(grade);
+        append(payload);
+    }
+
+    void appendGrades(Student student, double[] grades, int from, int to) throws IOException {
+        ByteBuffer payload = payload(1 + 4 + 4 + 8 * (to - from));
+        payload.put(GRADES_ADDED).putInt(student.getId()).putInt(to - from);
+        for (int i = from; i < to; i++) {
+            payload.putDouble(grades[i]);
+        }
+        append(payload);
+    }
+
+    // Until finishBatch, records are collected and written a buffer at a time
+    // instead of one write per record, e.g. for an import
+    void startBatch() {
+        if (batch == null) {
+            batch = ByteBuffer.allocate(BATCH_BUFFER_SIZE);
+        }
+    }
+
+    void finishBatch() throws IOException {
+        if (batch != null) {
+            writeBatch();
+            batch = null;
+        }
+    }
+
+    // Writes a snapshot of the current roster and starts an empty log
+    void compact() throws IOException {
+        List<Student> students = roster.get();
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        writeSnapshot(temp, students, generation + 1);
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation++;
+        snapshotBytes = Files.size(snapshot);
+        if (batch != null) {
+            // The roster already holds the batched changes, so the snapshot covers them
+            batch.clear();
+        }
+        resetLog();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            finishBatch();
+            log.force(false);
+            log.close();
+            log = null;
+        }
+    }
+
+    private ByteBuffer payload(int size) {
+        int needed = RECORD_HEADER_SIZE + size;
+        if (record.capacity() < needed) {
+            record = ByteBuffer.allocate(Math.max(needed, record.capacity() * 2));
+        }
+        record.clear().position(RECORD_HEADER_SIZE);
+        return record;
+    }
+
+    private void append(ByteBuffer payload) throws IOException {
+        int length = payload.position() - RECORD_HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array(), RECORD_HEADER_SIZE, length);
+        payload.putInt(0, length).putInt(4, (int) crc.getValue()).flip();
+        if (batch != null && batch.remaining() < payload.remaining()) {
+            writeBatch();
+        }
+        if (batch != null && batch.remaining() >= payload.remaining()) {
+            batch.put(payload);
+        } else {
+            while (payload.hasRemaining()) {
+                log.write(payload);
+            }
+        }
+        logBytes += RECORD_HEADER_SIZE + length;
+        if (logBytes > Math.max(MIN_COMPACTION_BYTES, snapshotBytes)) {
+            compact();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            log.write(batch);
+        }
+        batch.clear();
+    }
+
+    private void resetLog() throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE).putInt(LOG_MAGIC).putLong(generation).flip();
+        log.position(0);
+        while (header.hasRemaining()) {
+            log.write(header);
+        }
+        log.force(false);
+        logBytes = LOG_HEADER_SIZE;
+    }
+
+    // Returns the length of the intact prefix, or -1 if the log is stale or empty
+    private long replayLog(List<Student> students) throws IOException {
+        long size = log.size();
+        if (size < LOG_HEADER_SIZE) {
+            return -1;
+        }
+        // Read rather than mapped, so the file can be truncated afterwards; compaction keeps it small
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != LOG_MAGIC) {
+            throw new IOException("Not a grade log: " + directory.resolve(LOG_FILE));
+        }
+        long logGeneration = buffer.getLong();
+        if (logGeneration < generation) {
+            return -1;
+        }
+        if (logGeneration > generation) {
+            // The snapshot this log follows is missing; replaying it alone would lose students
+            throw new IOException("Grade log is newer than the snapshot in " + directory);
+        }
+
+        CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                System.out.println("Ignoring truncated record at the end of " + LOG_FILE);
+                return start;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                System.out.println("Ignoring damaged record at the end of " + LOG_FILE);
+                return start;
+            }
+            apply(body, students);
+            buffer.position(buffer.position() + length);
+        }
+        return buffer.position();
+    }
+
+    private static void apply(ByteBuffer body, List<Student> students) throws IOException {
+        byte type = body.get();
+        int id = body.getInt();
+        switch (type) {
+            case STUDENT_ADDED -> {
+                if (id != students.size()) {
+                    throw new IOException("Grade log adds student " + id + " to a roster of " + students.size());
+                }
+                students.add(new Student(id, readName(body)));
+            }
+            case GRADES_ADDED -> {
+                if (id < 0 || id >= students.size()) {
+                    throw new IOException("Grade log refers to unknown student " + id);
+                }
+                double[] grades = new double[body.getInt()];
+                body.asDoubleBuffer().get(grades);
+                students.get(id).addGrades(grades, 0, grades.length);
+            }
+            default -> throw new IOException("Unknown grade log record type: " + type);
+        }
+    }
+
+    private long readSnapshot(Path path, List<Student> students) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < SNAPSHOT_HEADER_SIZE || buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a grade snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != BODY_CHECKSUM_VERSION) {
+                throw new IOException("Unsupported grade snapshot version " + version + ": " + path);
+            }
+            long snapshotGeneration = buffer.getLong();
+            int studentCount = buffer.getInt();
+            int checksum = buffer.getInt();
+            CRC32C crc = new CRC32C();
+            if (version == VERSION) {
+                crc.update(buffer.slice(0, SNAPSHOT_HEADER_SIZE - 4));
+            }
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum mismatch in grade snapshot: " + path);
+            }
+
+            // Version 1 headers are not checksummed, so counts are checked against the file as it is read
+            try {
+                if (studentCount < 0) {
+                    throw new IOException("Invalid student count: " + studentCount);
+                }
+                double[] grades = new double[64];
+                for (int id = 0; id < studentCount; id++) {
+                    Student student = new Student(id, readName(buffer));
+                    int count = buffer.getInt();
+                    if (count < 0 || 8L * count > buffer.remaining()) {
+                        throw new IOException("Invalid grade count for student " + id + ": " + count);
+                    }
+                    if (count > grades.length) {
+                        grades = new double[Math.max(count, grades.length * 2)];
+                    }
+                    // A view from the current position; doubles need not be 8-byte aligned in the file
+                    buffer.slice().asDoubleBuffer().get(grades, 0, count);
+                    buffer.position(buffer.position() + 8 * count);
+                    student.addGrades(grades, 0, count);
+                    students.add(student);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Grade snapshot ends before its " + studentCount + " students: " + path, e);
+            } catch (IOException e) {
+                throw new IOException("Damaged grade snapshot " + path + ": " + e.getMessage(), e);
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    private static String readName(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid student name length: " + length);
+        }
+        byte[] name = new byte[length];
+        buffer.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static void writeSnapshot(Path path, List<Student> students, long generation) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE)
+                    .putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(generation).putInt(students.size());
+            CRC32C crc = new CRC32C();
+            crc.update(header.array(), 0, header.position());
+            ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+            channel.position(SNAPSHOT_HEADER_SIZE);
+            for (Student student : students) {
+                byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+                buffer = flushIfFull(channel, buffer, crc, 8 + name.length);
+                buffer.putInt(name.length).put(name).putInt(student.getGradeCount());
+                for (int i = 0; i < student.getGradeCount(); i++) {
+                    buffer = flushIfFull(channel, buffer, crc, 8);
+                    buffer.putDouble(student.getGrade(i));
+                }
+            }
+            flushIfFull(channel, buffer, crc, buffer.capacity());
+
+            header.putInt((int) crc.getValue()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    // Writes out the buffer when fewer than the needed bytes are left in it
+    private static ByteBuffer flushIfFull(FileChannel channel, ByteBuffer buffer, CRC32C crc, int needed)
+            throws IOException {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return needed > buffer.capacity() ? ByteBuffer.allocate(needed) : buffer;
+    }
+}
@@ -1,55 +1,18 @@
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.*;
 
-class Student {
-    private String name;
-    private List<Double> grades;
-
-    public Student(String name) {
-        this.name = name;
-        this.grades = new ArrayList<>();
-    }
-
-    public void addGrade(double grade) {
-        if (grade >= 0 && grade <= 100) {
-            grades.add(grade);
-        } else {
-            System.out.println("Invalid grade. Please enter a grade between 0 and 100.");
-        }
-    }
-
-    public double calculateAverage() {
-        if (grades.isEmpty()) return 0;
-        double sum = 0;
-        for (double grade : grades) {
-            sum += grade;
-        }
-        return sum / grades.size();
-    }
-
-    public double getHighestGrade() {
-        if (grades.isEmpty()) return 0;
-        return Collections.max(grades);
-    }
-
-    public double getLowestGrade() {
-        if (grades.isEmpty()) return 0;
-        return Collections.min(grades);
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public List<Double> getGrades() {
-        return new ArrayList<>(grades);
-    }
-}
-
 public class GradeTracker {
     private static Scanner scanner = new Scanner(System.in);
-    private static List<Student> students = new ArrayList<>();
+    private static StudentRegistry registry = new StudentRegistry();
+    private static final String DATA_DIRECTORY = "grade-data";
+    private static final int MAX_LISTED_STUDENTS = 50;
+    // Null when the saved grades could not be read; the session then runs in memory only
+    private static GradeStore store;
 
     public static void main(String[] args) {
+        loadStudents(Path.of(args.length > 0 ? args[0] : DATA_DIRECTORY));
         boolean running = true;
         while (running) {
             System.out.println("\nGrade Tracker System");
@@ -57,7 +20,9 @@ public class GradeTracker {
             System.out.println("2. Add Grade to Student");
             System.out.println("3. View Student Report");
             System.out.println("4. View Class Summary");
-            System.out.println("5. Exit");
+            System.out.println("5. Import Grades from CSV/TSV");
+            System.out.println("6. View Rankings");
+            System.out.println("7. Exit");
             System.out.print("Enter your choice: ");
             
             try {
@@ -77,7 +42,14 @@ public class GradeTracker {
                         viewClassSummary();
                         break;
                     case 5:
+                        importGrades();
+                        break;
+                    case 6:
+                        viewRankings();
+                        break;
+                    case 7:
                         running = false;
+                        closeStore();
                         System.out.println("Exiting Grade Tracker. Goodbye!");
                         break;
                     default:
@@ -94,7 +66,8 @@ public class GradeTracker {
         System.out.print("Enter student name: ");
         String name = scanner.nextLine().trim();
         if (!name.isEmpty()) {
-            students.add(new Student(name));
+            Student student = registry.add(name);
+            save(() -> store.appendStudent(student));
             System.out.println("Student added successfully!");
         } else {
             System.out.println("Name cannot be empty!");
@@ -102,66 +75,184 @@ public class GradeTracker {
     }
 
     private static void addGradeToStudent() {
-        if (students.isEmpty()) {
+        if (registry.isEmpty()) {
             System.out.println("No students available. Please add a student first.");
             return;
         }
 
-        System.out.println("\nSelect a student:");
-        for (int i = 0; i < students.size(); i++) {
-            System.out.println((i + 1) + ". " + students.get(i).getName());
+        Student student = selectStudent("Select a student:");
+        if (student == null) {
+            return;
         }
 
         try {
-            System.out.print("Enter student number: ");
-            int studentIndex = Integer.parseInt(scanner.nextLine()) - 1;
-            
-            if (studentIndex >= 0 && studentIndex < students.size()) {
-                System.out.print("Enter grade (0-100): ");
-                double grade = Double.parseDouble(scanner.nextLine());
-                students.get(studentIndex).addGrade(grade);
+            System.out.print("Enter grade (0-100): ");
+            double grade = Double.parseDouble(scanner.nextLine());
+            if (student.addGrade(grade)) {
+                save(() -> store.appendGrade(student, grade));
                 System.out.println("Grade added successfully!");
-            } else {
-                System.out.println("Invalid student number!");
             }
         } catch (NumberFormatException e) {
             System.out.println("Please enter a valid number.");
         }
     }
 
+    // Lists the roster only while it is short enough to read; any student can be picked by name
+    private static Student selectStudent(String heading) {
+        if (registry.size() <= MAX_LISTED_STUDENTS) {
+            System.out.println("\n" + heading);
+            for (Student student : registry.students()) {
+                System.out.println((student.getId() + 1) + ". " + student.getName());
+            }
+        }
+
+        System.out.print("Enter student number or name: ");
+        String input = scanner.nextLine().trim();
+        Student student = registry.findByName(input);
+        if (student == null) {
+            try {
+                student = registry.get(Integer.parseInt(input) - 1);
+            } catch (NumberFormatException e) {
+                // Not a number either
+            }
+        }
+        if (student == null) {
+            System.out.println("Invalid student number or name!");
+        }
+        return student;
+    }
+
+    private static void loadStudents(Path directory) {
+        GradeStore opened = new GradeStore(directory, () -> registry.students());
+        try {
+            long start = System.nanoTime();
+            registry = StudentRegistry.of(opened.load());
+            store = opened;
+            if (!registry.isEmpty()) {
+                System.out.printf("Loaded %d students from %s in %.0f ms\n",
+                    registry.size(), directory, (System.nanoTime() - start) / 1e6);
+            }
+        } catch (IOException e) {
+            System.out.println("Error loading grades: " + e.getMessage());
+            System.out.println("Changes made in this session will not be saved.");
+            try {
+                opened.close();
+            } catch (IOException ignored) {
+                // Already reporting the load failure
+            }
+        }
+    }
+
+    private static void save(StoreWrite write) {
+        if (store == null) return;
+        try {
+            write.run();
+        } catch (IOException e) {
+            System.out.println("Error saving grades: " + e.getMessage());
+        }
+    }
+
+    private static void closeStore() {
+        if (store == null) return;
+        try {
+            store.compact();
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Error saving grades: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface StoreWrite {
+        void run() throws IOException;
+    }
+
+    private static void importGrades() {
+        System.out.print("Enter file path (rows of student, course, grade): ");
+        String file = scanner.nextLine().trim();
+        if (file.isEmpty()) {
+            System.out.println("File path cannot be empty!");
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            GradeImporter.Result result = GradeImporter.importFile(Path.of(file), registry, store);
+            System.out.printf("Imported %d grades from %d rows in %.0f ms (%d new students, %d rows rejected)\n",
+                result.imported, result.rows, (System.nanoTime() - start) / 1e6,
+                result.studentsCreated, result.rejected);
+            for (String error : result.errors) {
+                System.out.println("  " + error);
+            }
+            if (result.rejected > result.errors.size()) {
+                System.out.println("  ... and " + (result.rejected - result.errors.size()) + " more");
+            }
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error importing grades: " + e.getMessage());
+        }
+    }
+
     private static void viewStudentReport() {
-        if (students.isEmpty()) {
+        if (registry.isEmpty()) {
             System.out.println("No students available.");
             return;
         }
 
-        System.out.println("\nSelect a student to view report:");
-        for (int i = 0; i < students.size(); i++) {
-            System.out.println((i + 1) + ". " + students.get(i).getName());
+        Student student = selectStudent("Select a student to view report:");
+        if (student == null) {
+            return;
+        }
+
+        System.out.println("\n--- Student Report ---");
+        System.out.println("Name: " + student.getName());
+        System.out.println("Grades: " + Arrays.toString(student.getGrades()));
+        System.out.println("Average: " + String.format("%.2f", student.calculateAverage()));
+        System.out.println("Highest Grade: " + student.getHighestGrade());
+        System.out.println("Lowest Grade: " + student.getLowestGrade());
+        System.out.println("Standard Deviation: " + String.format("%.2f", student.getStandardDeviation()));
+        if (student.getGradeCount() > 0) {
+            System.out.println("Rank: " + registry.rankOf(student) + " of " + registry.rankedCount()
+                + String.format(" (percentile %.1f)", registry.percentileRank(student)));
+        }
+        System.out.println("----------------------");
+    }
+
+    private static void viewRankings() {
+        if (registry.rankedCount() == 0) {
+            System.out.println("No graded students available.");
+            return;
         }
 
         try {
-            System.out.print("Enter student number: ");
-            int studentIndex = Integer.parseInt(scanner.nextLine()) - 1;
-            
-            if (studentIndex >= 0 && studentIndex < students.size()) {
-                Student student = students.get(studentIndex);
-                System.out.println("\n--- Student Report ---");
-                System.out.println("Name: " + student.getName());
-                System.out.println("Grades: " + student.getGrades());
-                System.out.println("Average: " + String.format("%.2f", student.calculateAverage()));
-                System.out.println("Highest Grade: " + student.getHighestGrade());
-                System.out.println("Lowest Grade: " + student.getLowestGrade());
-                System.out.println("----------------------");
-            } else {
-                System.out.println("Invalid student number!");
+            System.out.print("Show top how many students? ");
+            int count = Integer.parseInt(scanner.nextLine().trim());
+            if (count <= 0) {
+                System.out.println("Please enter a positive number.");
+                return;
             }
+            System.out.println("\n--- Leaderboard ---");
+            System.out.printf("%-8s %-20s %-15s\n", "Rank", "Student Name", "Average");
+            for (Student student : registry.top(count)) {
+                System.out.printf("%-8d %-20s %-15.2f\n",
+                    registry.rankOf(student), student.getName(), student.calculateAverage());
+            }
+
+            System.out.print("\nList students with an average below: ");
+            double threshold = Double.parseDouble(scanner.nextLine().trim());
+            List<Student> below = registry.below(threshold);
+            System.out.println("\n--- Students Below " + threshold + " (" + below.size() + " of "
+                + registry.rankedCount() + ") ---");
+            for (Student student : below) {
+                System.out.printf("%-20s %-15.2f\n", student.getName(), student.calculateAverage());
+            }
+            System.out.println("----------------------");
         } catch (NumberFormatException e) {
             System.out.println("Please enter a valid number.");
         }
     }
 
     private static void viewClassSummary() {
+        List<Student> students = registry.students();
         if (students.isEmpty()) {
             System.out.println("No students available.");
             return;
@@ -180,27 +271,27 @@ public class GradeTracker {
                 student.getLowestGrade());
         }
         
-        // Calculate class statistics
-        double classAverage = students.stream()
-            .mapToDouble(Student::calculateAverage)
-            .average()
-            .orElse(0);
-            
-        double highestInClass = students.stream()
-            .mapToDouble(Student::getHighestGrade)
-            .max()
-            .orElse(0);
-            
-        double lowestInClass = students.stream()
-            .mapToDouble(Student::getLowestGrade)
-            .min()
-            .orElse(0);
-            
+        ClassSummary summary = ClassSummary.of(students);
+
         System.out.println("\nClass Statistics:");
-        System.out.println("Average Grade: " + String.format("%.2f", classAverage));
-        System.out.println("Highest Grade in Class: " + highestInClass);
-        System.out.println("Lowest Grade in Class: " + lowestInClass);
+        System.out.println("Average Grade: " + String.format("%.2f", summary.getClassAverage()));
+        System.out.println("Median Average: " + String.format("%.2f", summary.getMedian()));
+        System.out.println("Standard Deviation: " + String.format("%.2f", summary.getAverageStandardDeviation()));
+        System.out.println("25th / 75th / 90th Percentile: " + String.format("%.2f / %.2f / %.2f",
+            summary.getPercentile(25), summary.getPercentile(75), summary.getPercentile(90)));
+        System.out.println("Highest Grade in Class: " + summary.getHighestGrade());
+        System.out.println("Lowest Grade in Class: " + summary.getLowestGrade());
+        System.out.println("Total Grades: " + summary.getGradeCount()
+            + " (mean " + String.format("%.2f", summary.getGradeMean())
+            + ", std dev " + String.format("%.2f", summary.getGradeStandardDeviation()) + ")");
         System.out.println("Total Students: " + students.size());
+
+        System.out.println("\nGrade Bands (by student average):");
+        int[] bands = summary.getBandCounts();
+        for (int band = 0; band < bands.length; band++) {
+            System.out.printf("%-12s %6d  %s\n", ClassSummary.BAND_LABELS[band], bands[band],
+                "#".repeat((int) Math.round(40.0 * bands[band] / summary.getStudentCount())));
+        }
         System.out.println("----------------------");
     }
 }
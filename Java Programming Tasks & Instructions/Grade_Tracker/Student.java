@@ -0,0 +1,140 @@
+import java.util.*;
+
+class Student {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int id;
+    private String name;
+    private double[] grades;
+    private int count;
+    private double sum;
+    private double highest;
+    private double lowest;
+    // Welford's running mean and sum of squared deviations from it
+    private double mean;
+    private double m2;
+    // Set once the student is in a registry, which ranks students by average
+    private StudentRegistry registry;
+
+    // The id is the student's position in the roster
+    public Student(int id, String name) {
+        this.id = id;
+        this.name = name;
+        this.grades = new double[INITIAL_CAPACITY];
+    }
+
+    // Grades change the average, so every mutator takes the student out of its
+    // registry's rank index first and puts it back after; the index deletes a
+    // student by the average it was ranked under
+    public boolean addGrade(double grade) {
+        if (grade >= 0 && grade <= 100) {
+            unrank();
+            if (count == grades.length) {
+                grades = Arrays.copyOf(grades, count * 2);
+            }
+            grades[count++] = grade;
+            updateStatistics(grade);
+            rank();
+            return true;
+        } else {
+            System.out.println("Invalid grade. Please enter a grade between 0 and 100.");
+            return false;
+        }
+    }
+
+    // Adds grades[from..to) with a single resize; the caller has already checked the range
+    public void addGrades(double[] values, int from, int to) {
+        unrank();
+        int needed = count + (to - from);
+        if (needed > grades.length) {
+            grades = Arrays.copyOf(grades, Math.max(needed, grades.length * 2));
+        }
+        for (int i = from; i < to; i++) {
+            double grade = values[i];
+            grades[count++] = grade;
+            updateStatistics(grade);
+        }
+        rank();
+    }
+
+    void attach(StudentRegistry registry) {
+        this.registry = registry;
+    }
+
+    private void unrank() {
+        if (registry != null) {
+            registry.unrank(this);
+        }
+    }
+
+    private void rank() {
+        if (registry != null) {
+            registry.rank(this);
+        }
+    }
+
+    // Called once the grade is stored, so count already includes it
+    private void updateStatistics(double grade) {
+        sum += grade;
+        if (count == 1) {
+            highest = grade;
+            lowest = grade;
+        } else {
+            highest = Math.max(highest, grade);
+            lowest = Math.min(lowest, grade);
+        }
+        double delta = grade - mean;
+        mean += delta / count;
+        m2 += delta * (grade - mean);
+    }
+
+    public double calculateAverage() {
+        if (count == 0) return 0;
+        return sum / count;
+    }
+
+    public double getHighestGrade() {
+        if (count == 0) return 0;
+        return highest;
+    }
+
+    public double getLowestGrade() {
+        if (count == 0) return 0;
+        return lowest;
+    }
+
+    // Population variance of the grades
+    public double getVariance() {
+        if (count == 0) return 0;
+        return m2 / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public int getGradeCount() {
+        return count;
+    }
+
+    public double getGrade(int index) {
+        Objects.checkIndex(index, count);
+        return grades[index];
+    }
+
+    public double getGradeSum() {
+        return sum;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double[] getGrades() {
+        return Arrays.copyOf(grades, count);
+    }
+}
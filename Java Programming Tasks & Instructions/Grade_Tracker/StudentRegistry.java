@@ -0,0 +1,251 @@
+import java.util.*;
+
+// The roster with a hash index by name and id, and a rank index ordering graded
+// students by average. Each indexed student tells the registry when its grades
+// change, so the rank index moves it with its average. The rank index is a treap
+// whose nodes count their subtree, giving the rank of any average in O(log n)
+// and the k students after a given one in O(log n + k).
+class StudentRegistry {
+    private final List<Student> byId = new ArrayList<>();
+    private final Map<String, Student> byName = new HashMap<>();
+    private final Random random = new Random();
+    private Node root;
+
+    private static final class Node {
+        final double average;
+        final Student student;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(double average, Student student, int priority) {
+            this.average = average;
+            this.student = student;
+            this.priority = priority;
+        }
+    }
+
+    // Students must be in id order, as GradeStore.load returns them
+    static StudentRegistry of(List<Student> students) {
+        StudentRegistry registry = new StudentRegistry();
+        for (Student student : students) {
+            if (student.getId() != registry.byId.size()) {
+                throw new IllegalArgumentException("Student " + student.getName() + " is out of id order");
+            }
+            registry.index(student);
+        }
+        return registry;
+    }
+
+    Student add(String name) {
+        Student student = new Student(byId.size(), name);
+        index(student);
+        return student;
+    }
+
+    Student get(int id) {
+        return id >= 0 && id < byId.size() ? byId.get(id) : null;
+    }
+
+    // The first student added under the name
+    Student findByName(String name) {
+        return byName.get(name);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    // Every student in id order; read-only
+    List<Student> students() {
+        return Collections.unmodifiableList(byId);
+    }
+
+    // Students with at least one grade
+    int rankedCount() {
+        return size(root);
+    }
+
+    // The n highest averages, best first; empty when n is not positive
+    List<Student> top(int n) {
+        List<Student> found = new ArrayList<>(Math.max(0, Math.min(n, rankedCount())));
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (found.size() < n && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.right;
+            }
+            node = path.pop();
+            found.add(node.student);
+            node = node.left;
+        }
+        return found;
+    }
+
+    // Students whose average is below the threshold, lowest first
+    List<Student> below(double threshold) {
+        List<Student> found = new ArrayList<>();
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (node != null || !path.isEmpty()) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            if (node.average >= threshold) {
+                break;
+            }
+            found.add(node.student);
+            node = node.right;
+        }
+        return found;
+    }
+
+    // Percentage of graded students with a lower average; -1 if the student has no grades
+    double percentileRank(Student student) {
+        if (student.getGradeCount() == 0) return -1;
+        return 100.0 * countBelow(student.calculateAverage()) / rankedCount();
+    }
+
+    // 1 for the best average; students with equal averages share a rank
+    int rankOf(Student student) {
+        if (student.getGradeCount() == 0) return -1;
+        return countAbove(student.calculateAverage()) + 1;
+    }
+
+    private void index(Student student) {
+        byId.add(student);
+        byName.putIfAbsent(student.getName(), student);
+        rank(student);
+        student.attach(this);
+    }
+
+    // Called by the student once its grades have changed
+    void rank(Student student) {
+        if (student.getGradeCount() > 0) {
+            root = insert(root, new Node(student.calculateAverage(), student, random.nextInt()));
+        }
+    }
+
+    // Called by the student before its grades change, while its average still matches its node
+    void unrank(Student student) {
+        if (student.getGradeCount() > 0) {
+            root = delete(root, student.calculateAverage(), student.getId());
+        }
+    }
+
+    private int countBelow(double average) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.average < average) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private int countAbove(double average) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.average > average) {
+                count += size(node.right) + 1;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    private static int compare(double average, int id, Node node) {
+        int byAverage = Double.compare(average, node.average);
+        return byAverage != 0 ? byAverage : Integer.compare(id, node.student.getId());
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.average, added.student.getId(), node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, double average, int id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(average, id, node);
+        if (order < 0) {
+            node.left = delete(node.left, average, id);
+        } else if (order > 0) {
+            node.right = delete(node.right, average, id);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    // Joins two treaps where every key in left sorts before every key in right
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
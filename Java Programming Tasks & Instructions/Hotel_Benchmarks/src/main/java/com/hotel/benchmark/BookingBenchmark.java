@@ -0,0 +1,80 @@
+package com.hotel.benchmark;
+
+import com.hotel.model.Reservation;
+import com.hotel.service.BookingRequest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Booking and cancellation, including the journal append. Every booking
+ * takes a fresh one-night slot after the generated history, so each
+ * invocation goes down the success path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Slots {
+        private final AtomicLong next = new AtomicLong();
+        private LocalDate firstFreeNight;
+        private int rooms;
+
+        @Setup(Level.Trial)
+        public void setUp(PopulatedHotel state) {
+            firstFreeNight = state.data.getHorizon().plusDays(1);
+            rooms = state.data.getRoomCount();
+        }
+
+        Reservation book(PopulatedHotel state) {
+            long slot = next.getAndIncrement();
+            LocalDate night = firstFreeNight.plusDays(slot / rooms);
+            return state.hotel.makeReservation("Bench Guest", "bench@example.com",
+                    HotelDataGenerator.roomNumber((int) (slot % rooms)), night, night.plusDays(1));
+        }
+
+        List<BookingRequest> block(int size) {
+            long first = next.getAndAdd(size);
+            List<BookingRequest> requests = new ArrayList<>(size);
+            for (long slot = first; slot < first + size; slot++) {
+                LocalDate night = firstFreeNight.plusDays(slot / rooms);
+                requests.add(new BookingRequest("Tour Guest", "tour@example.com",
+                        HotelDataGenerator.roomNumber((int) (slot % rooms)), night, night.plusDays(1)));
+            }
+            return requests;
+        }
+    }
+
+    @Benchmark
+    public Reservation book(PopulatedHotel state, Slots slots) {
+        return slots.book(state);
+    }
+
+    @Benchmark
+    public List<Reservation> bookBlockOf20(PopulatedHotel state, Slots slots) {
+        return state.hotel.makeReservations(slots.block(20));
+    }
+
+    @Benchmark
+    public boolean bookThenCancel(PopulatedHotel state, Slots slots) {
+        Reservation reservation = slots.book(state);
+        return state.hotel.cancelReservation(reservation.getReservationId());
+    }
+}
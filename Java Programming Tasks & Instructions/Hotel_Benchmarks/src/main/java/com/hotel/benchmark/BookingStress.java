@@ -0,0 +1,252 @@
+package com.hotel.benchmark;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.service.AvailabilityMatrix;
+import com.hotel.service.BookingRequest;
+import com.hotel.service.HotelManagementSystem;
+import com.hotel.service.ReservationPage;
+import com.hotel.storage.HotelStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Books, group-books and cancels on one hotel from many threads at once,
+ * then checks that no room holds overlapping active stays, that the room
+ * calendars agree with the reservations, and that both still hold after the
+ * hotel is reloaded from its journal. Exits with status 1 on any violation.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.hotel.benchmark.BookingStress [threads] [operations per thread]
+ * </pre>
+ *
+ * A few rooms over a short horizon keep the threads contending for the
+ * same nights and lock stripes.
+ */
+public class BookingStress {
+    private static final int ROOMS = 16;
+    private static final int NIGHTS = 60;
+    private static final int MAX_STAY = 5;
+    private static final LocalDate FIRST_NIGHT = HotelDataGenerator.START;
+    private static final RoomType[] TYPES = RoomType.values();
+
+    private final HotelManagementSystem hotel;
+    private final int operations;
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> active = Collections.synchronizedSet(new HashSet<>());
+    private final AtomicLong bookings = new AtomicLong();
+    private final AtomicLong groupBookings = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cancellations = new AtomicLong();
+
+    BookingStress(HotelManagementSystem hotel, int operations) {
+        this.hotel = hotel;
+        this.operations = operations;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Path directory = Files.createTempDirectory("hotel-stress");
+        List<String> violations = new ArrayList<>();
+        try {
+            HotelManagementSystem hotel = new HotelManagementSystem(directory, false);
+            // An fsync per booking would serialize the threads behind the journal instead of the room locks
+            hotel.setDurability(HotelStore.Durability.BUFFERED);
+            for (int i = 0; i < ROOMS; i++) {
+                hotel.addRoom(new Room(HotelDataGenerator.roomNumber(i), TYPES[i % TYPES.length], 100));
+            }
+            BookingStress stress = new BookingStress(hotel, operations);
+            stress.run(threads);
+            violations.addAll(stress.violations);
+            violations.addAll(check(hotel, stress.active));
+            hotel.close();
+
+            HotelManagementSystem reloaded = new HotelManagementSystem(directory, false);
+            for (String violation : check(reloaded, stress.active)) {
+                violations.add("After reload: " + violation);
+            }
+            reloaded.close();
+        } finally {
+            HotelDataGenerator.deleteRecursively(directory);
+        }
+
+        if (violations.isEmpty()) {
+            System.out.println("OK: no overlapping stays, calendars match the reservations");
+            return;
+        }
+        System.out.println(violations.size() + " violations:");
+        violations.stream().limit(20).forEach(violation -> System.out.println("  " + violation));
+        System.exit(1);
+    }
+
+    void run(int threads) throws InterruptedException {
+        System.out.printf("Running %d operations on each of %d threads over %d rooms...%n",
+                operations, threads, ROOMS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                work();
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            try {
+                worker.get(10, TimeUnit.MINUTES);
+            } catch (TimeoutException e) {
+                violations.add("Worker did not finish within 10 minutes; possible deadlock");
+            } catch (Exception e) {
+                violations.add("Worker failed: " + e);
+            }
+        }
+        executor.shutdownNow();
+        System.out.printf("Bookings: %d, group bookings: %d, rejected: %d, cancellations: %d, elapsed: %.2f s%n",
+                bookings.get(), groupBookings.get(), rejected.get(), cancellations.get(),
+                (System.nanoTime() - started) / 1e9);
+    }
+
+    private void work() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Only the thread that booked a reservation cancels it, so every cancel must succeed
+        List<String> mine = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            int roll = random.nextInt(10);
+            if (roll < 5) {
+                BookingRequest request = randomRequest(random);
+                Reservation reservation = hotel.makeReservation(request.guestName(), request.guestEmail(),
+                        request.roomNumber(), request.checkIn(), request.checkOut());
+                if (reservation == null) {
+                    rejected.incrementAndGet();
+                } else {
+                    booked(reservation, mine);
+                    bookings.incrementAndGet();
+                }
+            } else if (roll < 7) {
+                List<BookingRequest> requests = new ArrayList<>();
+                for (int n = 2 + random.nextInt(3); n > 0; n--) {
+                    requests.add(randomRequest(random));
+                }
+                List<Reservation> created = hotel.makeReservations(requests);
+                if (created.isEmpty()) {
+                    rejected.incrementAndGet();
+                } else if (created.size() != requests.size()) {
+                    violations.add("Group of " + requests.size() + " booked " + created.size() + " stays");
+                } else {
+                    created.forEach(reservation -> booked(reservation, mine));
+                    groupBookings.incrementAndGet();
+                }
+            } else if (!mine.isEmpty()) {
+                String reservationId = mine.remove(random.nextInt(mine.size()));
+                active.remove(reservationId);
+                if (hotel.cancelReservation(reservationId)) {
+                    cancellations.incrementAndGet();
+                } else {
+                    violations.add("Cancelling " + reservationId + " failed");
+                }
+            }
+        }
+    }
+
+    private void booked(Reservation reservation, List<String> mine) {
+        if (!active.add(reservation.getReservationId())) {
+            violations.add("Reservation id " + reservation.getReservationId() + " handed out twice");
+        }
+        mine.add(reservation.getReservationId());
+    }
+
+    private static BookingRequest randomRequest(ThreadLocalRandom random) {
+        LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(NIGHTS));
+        return new BookingRequest("Stress Guest", "stress@example.com",
+                HotelDataGenerator.roomNumber(random.nextInt(ROOMS)),
+                checkIn, checkIn.plusDays(1 + random.nextInt(MAX_STAY)));
+    }
+
+    /**
+     * Compares the hotel's active reservations with the ids the threads
+     * still hold, looks for overlapping stays and checks every room night
+     * of the availability matrix against the stays covering it.
+     */
+    static List<String> check(HotelManagementSystem hotel, Set<String> expected) {
+        List<String> violations = new ArrayList<>();
+        Map<Integer, List<Reservation>> stays = new HashMap<>();
+        Set<String> found = new HashSet<>();
+        String cursor = null;
+        do {
+            ReservationPage page = hotel.getReservations(cursor, 10_000);
+            for (Reservation reservation : page.reservations()) {
+                if (!reservation.isCancelled()) {
+                    found.add(reservation.getReservationId());
+                    stays.computeIfAbsent(reservation.getRoom().getRoomNumber(), n -> new ArrayList<>())
+                            .add(reservation);
+                }
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        if (!found.equals(expected)) {
+            Set<String> missing = new HashSet<>(expected);
+            missing.removeAll(found);
+            Set<String> unexpected = new HashSet<>(found);
+            unexpected.removeAll(expected);
+            violations.add("Active reservations differ: " + missing.size() + " missing, "
+                    + unexpected.size() + " unexpected");
+        }
+
+        for (List<Reservation> room : stays.values()) {
+            room.sort(Comparator.comparing(Reservation::getCheckInDate));
+            for (int i = 1; i < room.size(); i++) {
+                Reservation previous = room.get(i - 1);
+                Reservation next = room.get(i);
+                if (previous.getCheckOutDate().isAfter(next.getCheckInDate())) {
+                    violations.add("Room " + next.getRoom().getRoomNumber() + ": "
+                            + previous.getReservationId() + " overlaps " + next.getReservationId());
+                }
+            }
+        }
+
+        AvailabilityMatrix matrix = hotel.getAvailabilityMatrix(FIRST_NIGHT, FIRST_NIGHT.plusDays(NIGHTS + MAX_STAY));
+        for (int roomIndex = 0; roomIndex < matrix.getRooms().size(); roomIndex++) {
+            int roomNumber = matrix.getRooms().get(roomIndex).getRoomNumber();
+            boolean[] occupied = new boolean[matrix.getNights()];
+            for (Reservation reservation : stays.getOrDefault(roomNumber, List.of())) {
+                int from = (int) ChronoUnit.DAYS.between(FIRST_NIGHT, reservation.getCheckInDate());
+                int to = (int) ChronoUnit.DAYS.between(FIRST_NIGHT, reservation.getCheckOutDate());
+                for (int night = from; night < to; night++) {
+                    occupied[night] = true;
+                }
+            }
+            for (int night = 0; night < occupied.length; night++) {
+                if (matrix.isFree(roomIndex, night) == occupied[night]) {
+                    violations.add("Room " + roomNumber + " on " + FIRST_NIGHT.plusDays(night) + " is "
+                            + (occupied[night] ? "booked but free" : "free but marked taken") + " in its calendar");
+                }
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,115 @@
+package com.hotel.benchmark;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.service.HotelManagementSystem;
+import com.hotel.storage.HotelStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Builds deterministic synthetic hotels. A scale is written as
+ * {@code "rooms:reservations"}, e.g. {@code "5000:10000000"}. Every room gets
+ * a back-to-back history of one- to seven-night stays with short gaps, so the
+ * data covers a span proportional to reservations per room.
+ */
+public final class HotelDataGenerator {
+    public static final LocalDate START = LocalDate.of(2000, 1, 1);
+    public static final int FIRST_ROOM_NUMBER = 10_000;
+    private static final int MAX_SAMPLED_IDS = 100_000;
+    private static final RoomType[] TYPES = RoomType.values();
+
+    private final int roomCount;
+    private final long reservationCount;
+    private final long seed;
+    private final List<String> sampledIds = new ArrayList<>();
+    private LocalDate horizon = START;
+
+    public HotelDataGenerator(int roomCount, long reservationCount, long seed) {
+        this.roomCount = roomCount;
+        this.reservationCount = reservationCount;
+        this.seed = seed;
+    }
+
+    public static HotelDataGenerator forScale(String scale) {
+        String[] parts = scale.split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Scale must look like rooms:reservations, got " + scale);
+        }
+        return new HotelDataGenerator(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), 42L);
+    }
+
+    /**
+     * Creates a hotel in {@code directory}, fills it through the public
+     * booking API and writes a checkpoint so it can be reopened from a snapshot.
+     * Bookings skip the per-commit fsync; the checkpoint makes them durable.
+     */
+    public HotelManagementSystem populate(Path directory) {
+        HotelManagementSystem hotel = new HotelManagementSystem(directory);
+        hotel.setDurability(HotelStore.Durability.BUFFERED);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for (int i = 0; i < roomCount; i++) {
+            RoomType type = TYPES[i % TYPES.length];
+            hotel.addRoom(new Room(FIRST_ROOM_NUMBER + i, type, 80 + 60 * type.ordinal()));
+        }
+
+        long sampleEvery = Math.max(1, reservationCount / MAX_SAMPLED_IDS);
+        long made = 0;
+        for (int i = 0; i < roomCount; i++) {
+            long quota = reservationCount / roomCount + (i < reservationCount % roomCount ? 1 : 0);
+            LocalDate cursor = START.plusDays(random.nextInt(3));
+            for (long n = 0; n < quota; n++) {
+                LocalDate checkOut = cursor.plusDays(1 + random.nextInt(7));
+                Reservation reservation = hotel.makeReservation(
+                        "Guest " + made, "guest" + made + "@example.com",
+                        FIRST_ROOM_NUMBER + i, cursor, checkOut);
+                if (reservation != null && made++ % sampleEvery == 0) {
+                    sampledIds.add(reservation.getReservationId());
+                }
+                cursor = checkOut.plusDays(random.nextInt(3));
+            }
+            if (cursor.isAfter(horizon)) {
+                horizon = cursor;
+            }
+        }
+
+        if (!hotel.checkpoint()) {
+            throw new IllegalStateException("Could not write a snapshot of the generated hotel");
+        }
+        hotel.setDurability(HotelStore.Durability.FSYNC);
+        return hotel;
+    }
+
+    public int getRoomCount() { return roomCount; }
+    public long getReservationCount() { return reservationCount; }
+
+    /** Last day touched by any generated stay. */
+    public LocalDate getHorizon() { return horizon; }
+
+    /** Up to 100k reservation ids spread evenly over the generated history. */
+    public List<String> getSampledIds() { return sampledIds; }
+
+    public static int roomNumber(int index) {
+        return FIRST_ROOM_NUMBER + index;
+    }
+
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
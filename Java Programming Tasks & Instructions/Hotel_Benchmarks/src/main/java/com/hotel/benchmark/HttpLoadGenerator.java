@@ -0,0 +1,154 @@
+package com.hotel.benchmark;
+
+import com.hotel.api.HotelHttpServer;
+import com.hotel.payment.PaymentProcessor;
+import com.hotel.payment.SimulatedPaymentGateway;
+import com.hotel.service.HotelManagementSystem;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the HTTP API with many concurrent local clients and reports
+ * throughput and latency percentiles. Each client is an asynchronous chain
+ * of requests, so thousands of clients need only a handful of threads.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.hotel.benchmark.HttpLoadGenerator [clients] [requests] [scale]
+ * </pre>
+ *
+ * The request mix is 70% search, 20% lookup by id and 10% booking.
+ */
+public class HttpLoadGenerator {
+    private static final String[] TYPES = {"STANDARD", "DELUXE", "SUITE", "EXECUTIVE", "PRESIDENTIAL"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final HotelDataGenerator data;
+    private final AtomicInteger remaining;
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong bookingSlot = new AtomicLong();
+
+    HttpLoadGenerator(HttpClient client, String baseUrl, HotelDataGenerator data, int requests) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.remaining = new AtomicInteger(requests);
+        this.latencies = new long[requests];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        String scale = args.length > 2 ? args[2] : "1000:100000";
+
+        Path directory = Files.createTempDirectory("hotel-http-load");
+        HotelDataGenerator data = HotelDataGenerator.forScale(scale);
+        System.out.println("Generating hotel " + scale + "...");
+        HotelManagementSystem hotel = data.populate(directory);
+        PaymentProcessor payments = new PaymentProcessor(hotel, new SimulatedPaymentGateway(Duration.ofMillis(50)));
+        HotelHttpServer server = new HotelHttpServer(hotel, payments, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpLoadGenerator generator = new HttpLoadGenerator(
+                    client, "http://127.0.0.1:" + server.getPort(), data, requests);
+            generator.run(clients);
+        } finally {
+            server.stop();
+            payments.close();
+            hotel.close();
+            HotelDataGenerator.deleteRecursively(directory);
+        }
+    }
+
+    void run(int clients) {
+        System.out.printf("Running %d requests from %d concurrent clients...%n", latencies.length, clients);
+        long start = System.nanoTime();
+        CompletableFuture<?>[] chains = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            chains[i] = nextRequest();
+        }
+        CompletableFuture.allOf(chains).join();
+        long elapsed = System.nanoTime() - start;
+
+        int count = recorded.get();
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("Requests: %d, errors: %d, elapsed: %.2f s%n", count, errors.get(), elapsed / 1e9);
+        System.out.printf("Throughput: %.0f req/s%n", count / (elapsed / 1e9));
+        System.out.printf("Latency ms  p50=%.2f  p90=%.2f  p99=%.2f  p99.9=%.2f  max=%.2f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    private CompletableFuture<Void> nextRequest() {
+        if (remaining.getAndDecrement() <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = randomRequest();
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() >= 500) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> nextRequest());
+    }
+
+    private HttpRequest randomRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < 70) {
+            long span = Math.max(1, ChronoUnit.DAYS.between(HotelDataGenerator.START, data.getHorizon()));
+            LocalDate checkIn = HotelDataGenerator.START.plusDays(random.nextLong(span));
+            String uri = String.format("%s/rooms/search?type=%s&checkIn=%s&checkOut=%s", baseUrl,
+                    TYPES[random.nextInt(TYPES.length)], checkIn, checkIn.plusDays(1 + random.nextInt(7)));
+            return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+        }
+        if (roll < 90) {
+            List<String> ids = data.getSampledIds();
+            String id = ids.get(random.nextInt(ids.size()));
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/reservations/" + id)).GET().build();
+        }
+        long slot = bookingSlot.getAndIncrement();
+        LocalDate night = data.getHorizon().plusDays(1 + slot / data.getRoomCount());
+        String body = String.format("{\"guestName\":\"Load Guest\",\"guestEmail\":\"load@example.com\","
+                        + "\"roomNumber\":%d,\"checkIn\":\"%s\",\"checkOut\":\"%s\"}",
+                HotelDataGenerator.roomNumber((int) (slot % data.getRoomCount())), night, night.plusDays(1));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/reservations"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,40 @@
+package com.hotel.benchmark;
+
+import com.hotel.model.Reservation;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    @Benchmark
+    public Optional<Reservation> findById(PopulatedHotel state) {
+        List<String> ids = state.data.getSampledIds();
+        return state.hotel.findReservation(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public Optional<Reservation> findMissingId(PopulatedHotel state) {
+        return state.hotel.findReservation("RES-MISSING");
+    }
+
+    @Benchmark
+    public List<Optional<Reservation>> findBatchOf16(PopulatedHotel state) {
+        List<String> ids = state.data.getSampledIds();
+        int from = ThreadLocalRandom.current().nextInt(Math.max(1, ids.size() - 16));
+        return state.hotel.findReservations(ids.subList(from, Math.min(ids.size(), from + 16)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.hotel.benchmark;
+
+import com.hotel.service.HotelManagementSystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cold-start load from a snapshot and a full snapshot write.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoredHotel {
+        @Param({"100:10000", "1000:1000000", "5000:10000000"})
+        public String scale;
+
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            directory = Files.createTempDirectory("hotel-bench-load");
+            HotelDataGenerator.forScale(scale).populate(directory).close();
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanUp() throws IOException {
+            HotelDataGenerator.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    public HotelManagementSystem coldStartLoad(StoredHotel stored) {
+        HotelManagementSystem hotel = new HotelManagementSystem(stored.directory);
+        hotel.close();
+        return hotel;
+    }
+
+    @Benchmark
+    public void checkpoint(PopulatedHotel state) {
+        state.hotel.checkpoint();
+    }
+}
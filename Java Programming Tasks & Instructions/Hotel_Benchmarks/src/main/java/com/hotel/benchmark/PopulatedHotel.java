@@ -0,0 +1,38 @@
+package com.hotel.benchmark;
+
+import com.hotel.service.HotelManagementSystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A generated hotel shared by all threads of a benchmark trial.
+ */
+@State(Scope.Benchmark)
+public class PopulatedHotel {
+    @Param({"100:10000", "1000:1000000", "5000:10000000"})
+    public String scale;
+
+    public HotelDataGenerator data;
+    public HotelManagementSystem hotel;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        directory = Files.createTempDirectory("hotel-bench");
+        data = HotelDataGenerator.forScale(scale);
+        hotel = data.populate(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        hotel.close();
+        HotelDataGenerator.deleteRecursively(directory);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hotel.benchmark;
+
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.service.AvailabilityMatrix;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final RoomType[] TYPES = RoomType.values();
+
+    @Benchmark
+    public List<Room> searchByType(PopulatedHotel state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate checkIn = randomDay(state, random);
+        return state.hotel.searchAvailableRooms(
+                TYPES[random.nextInt(TYPES.length)], checkIn, checkIn.plusDays(1 + random.nextInt(7)));
+    }
+
+    @Benchmark
+    public List<Room> searchAllTypes(PopulatedHotel state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate checkIn = randomDay(state, random);
+        return state.hotel.searchAvailableRooms(null, checkIn, checkIn.plusDays(1 + random.nextInt(7)));
+    }
+
+    @Benchmark
+    public AvailabilityMatrix availabilityMatrix30Nights(PopulatedHotel state) {
+        LocalDate from = randomDay(state, ThreadLocalRandom.current());
+        return state.hotel.getAvailabilityMatrix(from, from.plusDays(30));
+    }
+
+    static LocalDate randomDay(PopulatedHotel state, ThreadLocalRandom random) {
+        long span = Math.max(1, ChronoUnit.DAYS.between(HotelDataGenerator.START, state.data.getHorizon()));
+        return HotelDataGenerator.START.plusDays(random.nextLong(span));
+    }
+}
@@ -2,15 +2,23 @@ package com.hotel;
 
 import com.hotel.model.RoomType;
 import com.hotel.model.Room;
+import com.hotel.payment.PaymentProcessor;
+import com.hotel.payment.PaymentRequest;
+import com.hotel.payment.PaymentResult;
+import com.hotel.payment.SimulatedPaymentGateway;
 import com.hotel.service.HotelManagementSystem;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletionException;
 
 public class MainApp {
     private static final HotelManagementSystem hotelSystem = new HotelManagementSystem();
+    private static final PaymentProcessor paymentProcessor =
+            new PaymentProcessor(hotelSystem, new SimulatedPaymentGateway(Duration.ofMillis(1500)));
     private static final Scanner scanner = new Scanner(System.in);
     private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
@@ -35,6 +43,8 @@ public class MainApp {
                     case 3 -> viewOrCancelReservation();
                     case 4 -> processPayment();
                     case 5 -> {
+                        paymentProcessor.close();
+                        hotelSystem.close();
                         System.out.println("Thank you for using the Hotel Reservation System!");
                         return;
                     }
@@ -186,20 +196,20 @@ public class MainApp {
                         String cvv = scanner.nextLine().trim();
                         
                         if (cvv.matches("\\d{3,4}")) {
-                            // Simulate payment processing
                             System.out.println("\nProcessing payment...");
                             try {
-                                Thread.sleep(1500); // Simulate processing time
+                                // The console waits for its own result; the pipeline itself never blocks
+                                PaymentResult result = paymentProcessor.submit(new PaymentRequest(
+                                        reservationId, reservation.getTotalPrice(), cardNumber, expiry, cvv)).join();
                                 
-                                if (hotelSystem.processPayment(reservationId)) {
+                                if (result.approved()) {
                                     System.out.println("\nPayment successful! Your booking is confirmed.");
                                     System.out.println("A confirmation has been sent to: " + reservation.getGuestEmail());
                                 } else {
-                                    System.out.println("Payment processing failed. Please try again.");
+                                    System.out.println("Payment processing failed: " + result.message() + ". Please try again.");
                                 }
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                                System.out.println("Payment processing was interrupted. Please try again.");
+                            } catch (CompletionException e) {
+                                System.out.println("Payment processing failed. Please try again.");
                             }
                         } else {
                             System.out.println("Invalid CVV. Payment cancelled.");
@@ -0,0 +1,399 @@
+package com.hotel.api;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.payment.PaymentProcessor;
+import com.hotel.payment.PaymentRequest;
+import com.hotel.payment.SimulatedPaymentGateway;
+import com.hotel.service.HotelManagementSystem;
+import com.hotel.service.ReservationPage;
+import com.hotel.service.WaitlistEntry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+
+/**
+ * JSON over HTTP front end for {@link HotelManagementSystem}, built on the
+ * JDK's embedded HTTP server with one thread per request.
+ *
+ * <pre>
+ * GET    /rooms/search?type=DELUXE&amp;checkIn=2026-01-01&amp;checkOut=2026-01-03
+ * GET    /reservations?cursor=...&amp;limit=100
+ * POST   /reservations                     {"guestName", "guestEmail", "roomNumber", "checkIn", "checkOut"}
+ * GET    /reservations/{id}
+ * DELETE /reservations/{id}
+ * POST   /reservations/{id}/payment        {"cardNumber", "expiry", "cvv"}
+ * POST   /waitlist                         {"guestName", "guestEmail", "roomType", "checkIn", "checkOut",
+ *                                           optional "priority", optional "autoBook"}
+ * GET    /waitlist/{id}                    404 once the entry has been served or withdrawn
+ * DELETE /waitlist/{id}
+ * GET    /metrics                          plain text, one "name value" per line
+ * </pre>
+ *
+ * Stays that are empty, longer than the hotel's maximum stay or outside the
+ * supported dates are answered with 400. Changes the hotel could not save,
+ * and lookups in an archive that could not be read, are answered with 503.
+ */
+public class HotelHttpServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    static {
+        // Without TCP_NODELAY small responses stall on delayed ACKs (~40 ms each).
+        // The JDK server reads this once, so it has to be set before the first server exists.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HotelManagementSystem hotel;
+    private final PaymentProcessor payments;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public HotelHttpServer(HotelManagementSystem hotel, PaymentProcessor payments,
+                           InetSocketAddress address) throws IOException {
+        this.hotel = hotel;
+        this.payments = payments;
+        this.executor = perRequestExecutor();
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/rooms/search", this::handleSearch);
+        server.createContext("/reservations", this::handleReservations);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/waitlist", this::handleWaitlist);
+    }
+
+    public static void main(String[] args) throws IOException, JMException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        HotelManagementSystem hotel = new HotelManagementSystem();
+        PaymentProcessor payments = new PaymentProcessor(hotel, new SimulatedPaymentGateway(Duration.ofMillis(1500)));
+        HotelHttpServer server = new HotelHttpServer(hotel, payments, new InetSocketAddress(port));
+        hotel.getMetrics().registerMBean("hotel");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            payments.close();
+            hotel.close();
+        }));
+        server.start();
+        System.out.println("Hotel API listening on port " + server.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Virtual threads where the runtime has them (JDK 21+), otherwise a cached pool
+    private static ExecutorService perRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "hotel-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, Json.error("Use GET"));
+                return;
+            }
+            Map<String, String> query = query(exchange);
+            String typeName = query.get("type");
+            RoomType type = typeName == null || typeName.isEmpty() ? null : RoomType.valueOf(typeName.toUpperCase());
+            LocalDate checkIn = LocalDate.parse(required(query, "checkIn"));
+            LocalDate checkOut = LocalDate.parse(required(query, "checkOut"));
+            // Rejects empty, overlong and out-of-range stays before anything is allocated for them
+            List<Room> rooms = hotel.searchAvailableRooms(type, checkIn, checkOut);
+            // Stream the array element by element instead of building one large string
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                out.write('[');
+                for (int i = 0; i < rooms.size(); i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    Room room = rooms.get(i);
+                    out.write(Json.room(room, hotel.quote(room, checkIn, checkOut)));
+                }
+                out.write(']');
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendQuietly(exchange, 400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            sendQuietly(exchange, 500, Json.error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] bytes = hotel.getMetrics().renderText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private void handleReservations(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        // "/reservations/{id}/payment" splits into ["", id, "payment"]
+        String[] parts = path.substring("/reservations".length()).split("/");
+        String method = exchange.getRequestMethod();
+        boolean answeredLater = false;
+        try {
+            if (parts.length <= 1 && method.equals("POST")) {
+                book(exchange);
+            } else if (parts.length <= 1 && method.equals("GET")) {
+                list(exchange);
+            } else if (parts.length == 2 && method.equals("GET")) {
+                lookup(exchange, parts[1]);
+            } else if (parts.length == 2 && method.equals("DELETE")) {
+                cancel(exchange, parts[1]);
+            } else if (parts.length == 3 && parts[2].equals("payment") && method.equals("POST")) {
+                answeredLater = pay(exchange, parts[1]);
+            } else {
+                send(exchange, 404, Json.error("No route for " + method + " " + path));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendQuietly(exchange, 400, Json.error(e.getMessage()));
+        } catch (UncheckedIOException e) {
+            sendQuietly(exchange, 503, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            sendQuietly(exchange, 500, Json.error(e.toString()));
+        } finally {
+            if (!answeredLater) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void handleWaitlist(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String[] parts = path.substring("/waitlist".length()).split("/");
+        String method = exchange.getRequestMethod();
+        // Not try-with-resources: the exchange has to stay open for the error responses below
+        try {
+            if (parts.length <= 1 && method.equals("POST")) {
+                joinWaitlist(exchange);
+            } else if (parts.length == 2 && method.equals("GET")) {
+                WaitlistEntry entry = hotel.findWaitlistEntry(parts[1]).orElse(null);
+                if (entry == null) {
+                    send(exchange, 404, Json.error("Waitlist entry not found"));
+                } else {
+                    send(exchange, 200, Json.waitlistEntry(entry));
+                }
+            } else if (parts.length == 2 && method.equals("DELETE")) {
+                if (hotel.leaveWaitlist(parts[1])) {
+                    send(exchange, 200, "{\"removed\":true}");
+                } else {
+                    send(exchange, 404, Json.error("Waitlist entry not found"));
+                }
+            } else {
+                send(exchange, 404, Json.error("No route for " + method + " " + path));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendQuietly(exchange, 400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            sendQuietly(exchange, 500, Json.error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void joinWaitlist(HttpExchange exchange) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        String priority = body.get("priority");
+        WaitlistEntry entry = hotel.joinWaitlist(required(body, "guestName"), required(body, "guestEmail"),
+                RoomType.valueOf(required(body, "roomType").toUpperCase()),
+                LocalDate.parse(required(body, "checkIn")), LocalDate.parse(required(body, "checkOut")),
+                priority == null ? 0 : Integer.parseInt(priority), Boolean.parseBoolean(body.get("autoBook")));
+        send(exchange, 201, Json.waitlistEntry(entry));
+    }
+
+    private void book(HttpExchange exchange) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        LocalDate checkIn = LocalDate.parse(required(body, "checkIn"));
+        LocalDate checkOut = LocalDate.parse(required(body, "checkOut"));
+        Reservation reservation = hotel.makeReservation(required(body, "guestName"),
+                required(body, "guestEmail"), Integer.parseInt(required(body, "roomNumber")),
+                checkIn, checkOut);
+        if (reservation == null) {
+            send(exchange, 409, Json.error("Room is not available for the requested dates"));
+        } else {
+            send(exchange, 201, Json.reservation(reservation));
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        String limit = query.get("limit");
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Integer.parseInt(limit), MAX_PAGE_SIZE);
+        String cursor = query.get("cursor");
+        ReservationPage page = hotel.getReservations(cursor == null || cursor.isEmpty() ? null : cursor, pageSize);
+
+        StringBuilder json = new StringBuilder("{\"reservations\":[");
+        for (int i = 0; i < page.reservations().size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(Json.reservation(page.reservations().get(i)));
+        }
+        json.append("],\"nextCursor\":")
+                .append(page.hasNext() ? Json.quote(page.nextCursor()) : "null")
+                .append('}');
+        send(exchange, 200, json.toString());
+    }
+
+    private void lookup(HttpExchange exchange, String reservationId) throws IOException {
+        Reservation reservation = hotel.findReservation(reservationId).orElse(null);
+        if (reservation == null) {
+            send(exchange, 404, Json.error("Reservation not found"));
+        } else {
+            send(exchange, 200, Json.reservation(reservation));
+        }
+    }
+
+    private void cancel(HttpExchange exchange, String reservationId) throws IOException {
+        if (hotel.cancelReservation(reservationId)) {
+            send(exchange, 200, "{\"cancelled\":true}");
+            return;
+        }
+        Reservation reservation = hotel.findReservation(reservationId).orElse(null);
+        if (reservation == null) {
+            send(exchange, 404, Json.error("Reservation not found"));
+        } else if (reservation.isCancelled()) {
+            send(exchange, 409, Json.error("Reservation is already cancelled"));
+        } else {
+            send(exchange, 409, Json.error("Archived reservations cannot be cancelled"));
+        }
+    }
+
+    /**
+     * Hands the payment to the processor and answers when it settles. The
+     * exchange is completed from the callback, so no request thread waits
+     * on the gateway.
+     *
+     * @return true once the exchange belongs to the payment callback
+     */
+    private boolean pay(HttpExchange exchange, String reservationId) throws IOException {
+        Reservation reservation = hotel.findReservation(reservationId).orElse(null);
+        if (reservation == null || reservation.isCancelled()) {
+            send(exchange, 404, Json.error("No payable reservation " + reservationId));
+            return false;
+        }
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        PaymentRequest request = new PaymentRequest(reservationId, reservation.getTotalPrice(),
+                required(body, "cardNumber"), required(body, "expiry"), required(body, "cvv"));
+
+        payments.submit(request).whenComplete((result, error) -> {
+            try (exchange) {
+                if (error != null && error.getCause() instanceof UncheckedIOException) {
+                    send(exchange, 503, Json.error("Payment could not be saved: " + error.getCause().getMessage()));
+                } else if (error != null) {
+                    send(exchange, 502, Json.error("Payment failed: " + error.getMessage()));
+                } else if (result.approved()) {
+                    send(exchange, 200, Json.reservation(reservation));
+                } else {
+                    send(exchange, 402, Json.error(result.message()));
+                }
+            } catch (IOException e) {
+                System.out.println("Error answering payment request: " + e.getMessage());
+            }
+        });
+        return true;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // For error paths where headers may already have been sent
+    private static void sendQuietly(HttpExchange exchange, int status, String json) {
+        try {
+            send(exchange, status, json);
+        } catch (IOException | RuntimeException e) {
+            // The client is gone or the response was already started
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+}
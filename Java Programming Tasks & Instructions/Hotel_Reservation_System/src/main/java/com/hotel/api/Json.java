@@ -0,0 +1,201 @@
+package com.hotel.api;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.service.WaitlistEntry;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the HTTP API and JSON-lines transfers: flat objects
+ * in, hand-built objects out.
+ */
+public final class Json {
+    private Json() {
+    }
+
+    public static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    public static String room(Room room) {
+        return String.format(Locale.ROOT, "{\"roomNumber\":%d,\"type\":%s,\"pricePerNight\":%.2f}",
+                room.getRoomNumber(), quote(room.getType().name()), room.getPricePerNight());
+    }
+
+    // A search hit with the price of the searched stay
+    static String room(Room room, double totalPrice) {
+        return String.format(Locale.ROOT, "{\"roomNumber\":%d,\"type\":%s,\"pricePerNight\":%.2f,\"totalPrice\":%.2f}",
+                room.getRoomNumber(), quote(room.getType().name()), room.getPricePerNight(), totalPrice);
+    }
+
+    public static String reservation(Reservation reservation) {
+        return String.format(Locale.ROOT, "{\"reservationId\":%s,\"guestName\":%s,\"guestEmail\":%s,"
+                        + "\"roomNumber\":%d,\"roomType\":%s,\"checkIn\":\"%s\",\"checkOut\":\"%s\","
+                        + "\"totalPrice\":%.2f,\"paid\":%b,\"cancelled\":%b}",
+                quote(reservation.getReservationId()), quote(reservation.getGuestName()),
+                quote(reservation.getGuestEmail()), reservation.getRoom().getRoomNumber(),
+                quote(reservation.getRoom().getType().name()), reservation.getCheckInDate(),
+                reservation.getCheckOutDate(), reservation.getTotalPrice(),
+                reservation.isPaid(), reservation.isCancelled());
+    }
+
+    static String waitlistEntry(WaitlistEntry entry) {
+        return String.format(Locale.ROOT, "{\"entryId\":%s,\"guestName\":%s,\"guestEmail\":%s,"
+                        + "\"roomType\":%s,\"checkIn\":\"%s\",\"checkOut\":\"%s\",\"priority\":%d,\"autoBook\":%b}",
+                quote(entry.entryId()), quote(entry.guestName()), quote(entry.guestEmail()),
+                quote(entry.type().name()), entry.checkIn(), entry.checkOut(), entry.priority(), entry.autoBook());
+    }
+
+    static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    /**
+     * Parses a flat JSON object. Values come back as their string form;
+     * nested objects and arrays are rejected.
+     */
+    public static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> fields = parser.object();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected content after JSON object");
+        }
+        return fields;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> object() {
+            Map<String, String> fields = new HashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return fields;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                fields.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return fields;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at " + (pos - 1));
+                }
+            }
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested JSON values are not supported");
+            }
+            int start = pos;
+            while (!atEnd() && ",} \t\r\n".indexOf(peek()) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Missing value at " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> out.append(escaped);
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("Truncated unicode escape");
+                        }
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape \\" + escaped);
+                }
+            }
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+
+        private char peek() {
+            if (atEnd()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at " + (pos - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.hotel.chain;
+
+import com.hotel.model.Room;
+
+/**
+ * A free room found by a chain-wide search, with the price of the searched
+ * stay at its property.
+ */
+public record ChainRoom(Property property, Room room, double totalPrice) {
+}
@@ -0,0 +1,273 @@
+package com.hotel.chain;
+
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.service.HotelManagementSystem;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * A chain of hotels, one {@link HotelManagementSystem} per property. Each
+ * property keeps its own directory under the chain root, with its own
+ * journal, snapshot, indexes and lock stripes, so properties never contend
+ * with each other. Chain-wide searches fan out over a fork-join pool.
+ * Opening and closing properties blocks on file I/O, so it runs on
+ * short-lived threads of its own rather than in the fork-join pool.
+ */
+public class HotelChain {
+    private static final String PROPERTY_FILE = "property.properties";
+    private static final Pattern PROPERTY_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final int MAX_IO_THREADS = 16;
+
+    private final Path root;
+    private final ForkJoinPool pool;
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    private record Shard(Property property, HotelManagementSystem hotel) {
+    }
+
+    public HotelChain(Path root) {
+        this(root, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Opens every property found under {@code root}, loading them in
+     * parallel. If one cannot be opened, the ones already open are closed
+     * again before the failure is rethrown.
+     *
+     * @param pool runs the chain-wide searches
+     */
+    public HotelChain(Path root, ForkJoinPool pool) {
+        this.root = root;
+        this.pool = pool;
+        List<Path> directories = new ArrayList<>();
+        try {
+            Files.createDirectories(root);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path directory : stream) {
+                    if (Files.exists(directory.resolve(PROPERTY_FILE))) {
+                        directories.add(directory);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening hotel chain at " + root, e);
+        }
+        List<Shard> opened = Collections.synchronizedList(new ArrayList<>(directories.size()));
+        RuntimeException failure = runBlocking(directories, directory -> opened.add(openShard(directory)));
+        if (failure != null) {
+            RuntimeException closeFailure = runBlocking(opened, shard -> shard.hotel().close());
+            if (closeFailure != null) {
+                failure.addSuppressed(closeFailure);
+            }
+            throw failure;
+        }
+        for (Shard shard : opened) {
+            shards.put(shard.property().id(), shard);
+        }
+    }
+
+    /**
+     * Creates a property with no rooms and its own data directory.
+     */
+    public synchronized Property addProperty(String id, String name, String city) {
+        if (!PROPERTY_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Property id may only contain letters, digits, '-' and '_': " + id);
+        }
+        if (shards.containsKey(id)) {
+            throw new IllegalArgumentException("Property already exists: " + id);
+        }
+        Property property = new Property(id, name, city);
+        Path directory = root.resolve(id);
+        Properties file = new Properties();
+        file.setProperty("name", name);
+        file.setProperty("city", city);
+        try {
+            Files.createDirectories(directory);
+            try (Writer out = Files.newBufferedWriter(directory.resolve(PROPERTY_FILE), StandardCharsets.UTF_8)) {
+                file.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error creating property " + id, e);
+        }
+        shards.put(id, new Shard(property, new HotelManagementSystem(directory, false)));
+        return property;
+    }
+
+    public Optional<HotelManagementSystem> getHotel(String propertyId) {
+        Shard shard = shards.get(propertyId);
+        return shard == null ? Optional.empty() : Optional.of(shard.hotel());
+    }
+
+    public List<Property> getProperties() {
+        return shards.values().stream()
+                .map(Shard::property)
+                .sorted(Comparator.comparing(Property::id))
+                .toList();
+    }
+
+    /**
+     * Free rooms across the chain for the stay {@code [checkIn, checkOut)},
+     * cheapest first. Each property is searched as a separate fork-join
+     * task.
+     *
+     * @param city only properties in this city (case-insensitive), or null for all
+     * @param type only rooms of this type, or null for all
+     */
+    public List<ChainRoom> searchAvailableRooms(String city, RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        List<Shard> candidates = shards.values().stream()
+                .filter(shard -> city == null || shard.property().city().equalsIgnoreCase(city))
+                .toList();
+        List<List<ChainRoom>> perProperty = fanOut(candidates, shard -> {
+            List<ChainRoom> found = new ArrayList<>();
+            for (Room room : shard.hotel().searchAvailableRooms(type, checkIn, checkOut)) {
+                found.add(new ChainRoom(shard.property(), room, shard.hotel().quote(room, checkIn, checkOut)));
+            }
+            return found;
+        });
+
+        List<ChainRoom> merged = new ArrayList<>();
+        perProperty.forEach(merged::addAll);
+        merged.sort(Comparator.comparingDouble(ChainRoom::totalPrice)
+                .thenComparing(r -> r.property().id())
+                .thenComparingInt(r -> r.room().getRoomNumber()));
+        return merged;
+    }
+
+    /**
+     * Closes every property.
+     */
+    public synchronized void close() {
+        List<Shard> closing = List.copyOf(shards.values());
+        shards.clear();
+        RuntimeException failure = runBlocking(closing, shard -> shard.hotel().close());
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private <T, R> List<R> fanOut(List<T> items, Function<T, R> work) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        return pool.invoke(new FanOutTask<>(items, work));
+    }
+
+    /**
+     * Applies {@code work} to every item on a pool created for the call and
+     * waits for all of them, even if some fail or the caller is interrupted,
+     * so nothing is left running or half open.
+     *
+     * @return the first failure with the others suppressed, or null
+     */
+    private static <T> RuntimeException runBlocking(List<T> items, Consumer<T> work) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService io = Executors.newFixedThreadPool(Math.min(items.size(), MAX_IO_THREADS), r -> {
+            Thread thread = new Thread(r, "hotel-chain-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        try {
+            List<Future<?>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(io.submit(() -> work.accept(item)));
+            }
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        RuntimeException cause = e.getCause() instanceof RuntimeException runtime
+                                ? runtime : new IllegalStateException(e.getCause());
+                        if (failure == null) {
+                            failure = cause;
+                        } else {
+                            failure.addSuppressed(cause);
+                        }
+                        break;
+                    }
+                }
+            }
+        } finally {
+            io.shutdown();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return failure;
+    }
+
+    private static Shard openShard(Path directory) {
+        Properties file = new Properties();
+        try (Reader in = Files.newBufferedReader(directory.resolve(PROPERTY_FILE), StandardCharsets.UTF_8)) {
+            file.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading property " + directory.getFileName(), e);
+        }
+        Property property = new Property(directory.getFileName().toString(),
+                file.getProperty("name", ""), file.getProperty("city", ""));
+        return new Shard(property, new HotelManagementSystem(directory, false));
+    }
+
+    // Splits the list in halves until one item is left, then applies the work to it
+    private static final class FanOutTask<T, R> extends RecursiveTask<List<R>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final Function<T, R> work;
+
+        FanOutTask(List<T> items, Function<T, R> work) {
+            this.items = items;
+            this.work = work;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (items.size() == 1) {
+                List<R> result = new ArrayList<>(1);
+                result.add(work.apply(items.get(0)));
+                return result;
+            }
+            int middle = items.size() / 2;
+            FanOutTask<T, R> left = new FanOutTask<>(items.subList(0, middle), work);
+            FanOutTask<T, R> right = new FanOutTask<>(items.subList(middle, items.size()), work);
+            left.fork();
+            List<R> result = new ArrayList<>(right.compute());
+            result.addAll(0, left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.hotel.chain;
+
+/**
+ * A hotel in the chain. The id names the property's data directory.
+ */
+public record Property(String id, String name, String city) {
+}
@@ -0,0 +1,21 @@
+package com.hotel.metrics;
+
+/**
+ * Monotonic event counters.
+ */
+public enum Counter {
+    BOOKINGS,
+    BOOKINGS_REJECTED,
+    CANCELLATIONS,
+    PAYMENTS,
+    PERSISTENCE_ERRORS,
+    JOURNAL_RECORDS,
+    JOURNAL_BYTES,
+    ARCHIVED_RESERVATIONS,
+    ARCHIVE_BYTES,
+    FSYNCS,
+    FSYNC_NANOS,
+    WAITLIST_JOINS,
+    WAITLIST_BOOKINGS,
+    WAITLIST_OFFERS
+}
@@ -0,0 +1,129 @@
+package com.hotel.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Latency histograms, event counters and gauges for one hotel. Recording
+ * touches only striped adders and atomic arrays, so it is safe and cheap
+ * on every request path. The same values are published as a flat name to
+ * number map, as plain text and as JMX attributes.
+ */
+public class HotelMetrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public HotelMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    public void record(Operation operation, long nanos) {
+        latencies.get(operation).record(nanos);
+    }
+
+    /**
+     * Records the time since {@code startNanos}, a value from {@link System#nanoTime()}.
+     */
+    public void recordSince(Operation operation, long startNanos) {
+        latencies.get(operation).record(System.nanoTime() - startNanos);
+    }
+
+    public void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    public void add(Counter counter, long amount) {
+        counters.get(counter).add(amount);
+    }
+
+    /**
+     * Publishes a value that is read whenever the metrics are.
+     */
+    public void registerGauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getCount(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    /**
+     * Current values by name: counters as {@code <counter>_total}, gauges by
+     * their name, and for each operation its count, mean, max and
+     * percentiles in microseconds.
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        counters.forEach((counter, adder) -> values.put(name(counter) + "_total", adder.sum()));
+        new TreeMap<>(gauges).forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        latencies.forEach((operation, histogram) -> {
+            String prefix = name(operation) + "_latency_";
+            values.put(prefix + "count", histogram.getCount());
+            values.put(prefix + "mean_us", histogram.getMean() / 1000.0);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                values.put(prefix + QUANTILE_NAMES[i] + "_us", histogram.getValueAtQuantile(QUANTILES[i]) / 1000.0);
+            }
+            values.put(prefix + "max_us", histogram.getMax() / 1000.0);
+        });
+        return values;
+    }
+
+    /**
+     * One {@code hotel_<name> <value>} line per metric.
+     */
+    public String renderText() {
+        StringBuilder text = new StringBuilder(4096);
+        snapshot().forEach((name, value) -> {
+            text.append("hotel_").append(name).append(' ');
+            if (value instanceof Double d) {
+                text.append(String.format(Locale.ROOT, "%.3f", d));
+            } else {
+                text.append(value);
+            }
+            text.append('\n');
+        });
+        return text.toString();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * {@code com.hotel:type=HotelMetrics,name=<name>}.
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.hotel:type=HotelMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(new MetricsMBean(this), objectName);
+        return objectName;
+    }
+
+    public void unregisterMBean(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hotel.metrics;
+
+/**
+ * Timed operations. Each gets its own latency histogram.
+ */
+public enum Operation {
+    SEARCH,
+    AVAILABILITY_MATRIX,
+    BOOK,
+    BOOK_GROUP,
+    CANCEL,
+    PAY,
+    PAY_BATCH,
+    LOOKUP,
+    IMPORT,
+    ARCHIVE,
+    LOAD,
+    CHECKPOINT,
+    JOURNAL_APPEND
+}
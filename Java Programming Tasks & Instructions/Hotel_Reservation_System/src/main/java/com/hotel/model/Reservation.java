@@ -1,6 +1,7 @@
 package com.hotel.model;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 public class Reservation {
@@ -16,19 +17,41 @@ public class Reservation {
 
     public Reservation(String guestName, String guestEmail, Room room, 
                       LocalDate checkInDate, LocalDate checkOutDate) {
-        this.reservationId = "RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        this(guestName, guestEmail, room, checkInDate, checkOutDate,
+                calculateTotalPrice(room, checkInDate, checkOutDate));
+    }
+
+    // Books at a price quoted elsewhere, e.g. by the pricing engine
+    public Reservation(String guestName, String guestEmail, Room room,
+                      LocalDate checkInDate, LocalDate checkOutDate, double totalPrice) {
+        // The whole UUID: a shorter prefix collides long before a hotel holds millions of bookings
+        this.reservationId = "RES-" + UUID.randomUUID().toString().replace("-", "").toUpperCase();
         this.guestName = guestName;
         this.guestEmail = guestEmail;
         this.room = room;
         this.checkInDate = checkInDate;
         this.checkOutDate = checkOutDate;
-        this.totalPrice = calculateTotalPrice();
+        this.totalPrice = totalPrice;
         this.isPaid = false;
         this.isCancelled = false;
     }
 
-    private double calculateTotalPrice() {
-        long nights = checkInDate.datesUntil(checkOutDate).count();
+    // Restores a reservation from persisted state
+    public Reservation(String reservationId, String guestName, String guestEmail, Room room,
+                      LocalDate checkInDate, LocalDate checkOutDate, double totalPrice) {
+        this.reservationId = reservationId;
+        this.guestName = guestName;
+        this.guestEmail = guestEmail;
+        this.room = room;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.totalPrice = totalPrice;
+        this.isPaid = false;
+        this.isCancelled = false;
+    }
+
+    private static double calculateTotalPrice(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        long nights = Math.max(0, ChronoUnit.DAYS.between(checkInDate, checkOutDate));
         return room.getPricePerNight() * nights;
     }
 
@@ -38,7 +61,15 @@ public class Reservation {
 
     public void cancel() {
         this.isCancelled = true;
-        this.room.setAvailable(true);
+    }
+
+    // Take back a payment or cancellation that could not be saved
+    public void revertPayment() {
+        this.isPaid = false;
+    }
+
+    public void revertCancellation() {
+        this.isCancelled = false;
     }
 
     // Getters
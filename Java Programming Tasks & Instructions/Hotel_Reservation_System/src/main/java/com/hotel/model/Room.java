@@ -4,16 +4,14 @@ public class Room {
     private int roomNumber;
     private RoomType type;
     private double pricePerNight;
-    private boolean isAvailable;
 
     public Room(int roomNumber, RoomType type, double pricePerNight) {
         this.roomNumber = roomNumber;
         this.type = type;
         this.pricePerNight = pricePerNight;
-        this.isAvailable = true;
     }
 
-    // Getters and Setters
+    // Getters
     public int getRoomNumber() {
         return roomNumber;
     }
@@ -26,17 +24,9 @@ public class Room {
         return pricePerNight;
     }
 
-    public boolean isAvailable() {
-        return isAvailable;
-    }
-
-    public void setAvailable(boolean available) {
-        isAvailable = available;
-    }
-
     @Override
     public String toString() {
-        return String.format("Room %d - %s - $%.2f/night - %s",
-                roomNumber, type, pricePerNight, isAvailable ? "Available" : "Booked");
+        return String.format("Room %d - %s - $%.2f/night",
+                roomNumber, type, pricePerNight);
     }
 }
@@ -0,0 +1,11 @@
+package com.hotel.payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Card processor the hotel talks to. Implementations must not block the
+ * calling thread; the returned future completes when the gateway answers.
+ */
+public interface PaymentGateway {
+    CompletableFuture<PaymentResult> authorize(PaymentRequest request);
+}
@@ -0,0 +1,123 @@
+package com.hotel.payment;
+
+import com.hotel.service.HotelManagementSystem;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking payment pipeline. Authorizations go to the gateway
+ * asynchronously; approvals are queued and marked as paid on the hotel in
+ * batches, either every flush interval or as soon as a batch fills up.
+ * The future returned by {@link #submit} completes once the reservation's
+ * state is settled, and registered listeners see every result.
+ */
+public class PaymentProcessor implements AutoCloseable {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(10);
+
+    private final HotelManagementSystem hotel;
+    private final PaymentGateway gateway;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentLinkedQueue<Approval> approvals = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final List<Consumer<PaymentResult>> listeners = new CopyOnWriteArrayList<>();
+
+    private record Approval(PaymentResult result, CompletableFuture<PaymentResult> settled) {
+    }
+
+    public PaymentProcessor(HotelManagementSystem hotel, PaymentGateway gateway) {
+        this(hotel, gateway, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public PaymentProcessor(HotelManagementSystem hotel, PaymentGateway gateway,
+                            int batchSize, Duration flushInterval) {
+        this.hotel = hotel;
+        this.gateway = gateway;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "payment-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers a callback invoked with every settled payment.
+     */
+    public void addListener(Consumer<PaymentResult> listener) {
+        listeners.add(listener);
+    }
+
+    public CompletableFuture<PaymentResult> submit(PaymentRequest request) {
+        CompletableFuture<PaymentResult> settled = gateway.authorize(request)
+                .exceptionally(e -> PaymentResult.declined(request.reservationId(),
+                        "Payment gateway error: " + e.getMessage()))
+                .thenCompose(result -> {
+                    if (!result.approved()) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    CompletableFuture<PaymentResult> applied = new CompletableFuture<>();
+                    approvals.add(new Approval(result, applied));
+                    if (queued.incrementAndGet() >= batchSize) {
+                        flusher.execute(this::flush);
+                    }
+                    return applied;
+                });
+        settled.thenAccept(result -> listeners.forEach(listener -> listener.accept(result)));
+        return settled;
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // Runs on the flusher thread, or on the closing thread after the flusher has stopped
+    private synchronized void flush() {
+        List<Approval> batch = new ArrayList<>();
+        Approval approval;
+        while ((approval = approvals.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(approval);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = new ArrayList<>(batch.size());
+        batch.forEach(a -> ids.add(a.result().reservationId()));
+        Set<String> paid;
+        try {
+            paid = hotel.processPayments(ids);
+        } catch (RuntimeException e) {
+            batch.forEach(a -> a.settled().completeExceptionally(e));
+            return;
+        }
+
+        for (Approval a : batch) {
+            String reservationId = a.result().reservationId();
+            a.settled().complete(paid.contains(reservationId)
+                    ? a.result()
+                    : PaymentResult.declined(reservationId, "Reservation is no longer payable"));
+        }
+    }
+}
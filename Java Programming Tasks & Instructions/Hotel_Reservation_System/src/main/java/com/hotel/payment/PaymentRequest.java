@@ -0,0 +1,15 @@
+package com.hotel.payment;
+
+/**
+ * Card authorization request for one reservation.
+ */
+public record PaymentRequest(String reservationId, double amount,
+                             String cardNumber, String expiry, String cvv) {
+
+    @Override
+    public String toString() {
+        // Never print card details
+        return String.format("PaymentRequest[%s, $%.2f, card ending %s]", reservationId, amount,
+                cardNumber.length() >= 4 ? cardNumber.substring(cardNumber.length() - 4) : "????");
+    }
+}
@@ -0,0 +1,16 @@
+package com.hotel.payment;
+
+/**
+ * Outcome of a payment once the gateway has answered and, for approvals,
+ * the reservation has been marked as paid.
+ */
+public record PaymentResult(String reservationId, boolean approved, String message) {
+
+    public static PaymentResult approved(String reservationId) {
+        return new PaymentResult(reservationId, true, "Payment approved");
+    }
+
+    public static PaymentResult declined(String reservationId, String reason) {
+        return new PaymentResult(reservationId, false, reason);
+    }
+}
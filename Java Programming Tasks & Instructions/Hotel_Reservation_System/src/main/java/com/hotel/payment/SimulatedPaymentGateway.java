@@ -0,0 +1,31 @@
+package com.hotel.payment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for a card processor. Answers after a fixed latency using a
+ * delayed executor, so in-flight authorizations do not hold any thread.
+ * Requests with malformed card details are declined.
+ */
+public class SimulatedPaymentGateway implements PaymentGateway {
+    private final Executor delayed;
+
+    public SimulatedPaymentGateway(Duration latency) {
+        this.delayed = CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> authorize(PaymentRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!request.cardNumber().matches("\\d{16}")
+                    || !request.expiry().matches("\\d{2}/\\d{2}")
+                    || !request.cvv().matches("\\d{3,4}")) {
+                return PaymentResult.declined(request.reservationId(), "Card details were rejected");
+            }
+            return PaymentResult.approved(request.reservationId());
+        }, delayed);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hotel.service;
+
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rooms x nights availability for a date window, with free-room counts per
+ * room type and night. Each row is a bitset of free nights.
+ */
+public class AvailabilityMatrix {
+    private final List<Room> rooms;
+    private final LocalDate firstNight;
+    private final int nights;
+    private final int wordsPerRoom;
+    private final long[] freeBits;
+    private final Map<RoomType, int[]> freeCounts = new EnumMap<>(RoomType.class);
+
+    AvailabilityMatrix(List<Room> rooms, LocalDate firstNight, int nights, long[] freeBits) {
+        this.rooms = List.copyOf(rooms);
+        this.firstNight = firstNight;
+        this.nights = nights;
+        this.wordsPerRoom = wordsPerRoom(nights);
+        this.freeBits = freeBits;
+
+        for (RoomType type : RoomType.values()) {
+            freeCounts.put(type, new int[nights]);
+        }
+        for (int row = 0; row < this.rooms.size(); row++) {
+            int[] counts = freeCounts.get(this.rooms.get(row).getType());
+            for (int w = 0; w < wordsPerRoom; w++) {
+                long bits = freeBits[row * wordsPerRoom + w];
+                while (bits != 0) {
+                    counts[64 * w + Long.numberOfTrailingZeros(bits)]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    static int wordsPerRoom(int nights) {
+        return (nights + 63) >>> 6;
+    }
+
+    public List<Room> getRooms() { return rooms; }
+    public LocalDate getFirstNight() { return firstNight; }
+    public int getNights() { return nights; }
+
+    public boolean isFree(int roomIndex, int night) {
+        if (night < 0 || night >= nights) {
+            throw new IndexOutOfBoundsException("Night " + night + " outside window of " + nights);
+        }
+        return (freeBits[roomIndex * wordsPerRoom + (night >>> 6)] & (1L << night)) != 0;
+    }
+
+    public boolean isFree(int roomIndex, LocalDate night) {
+        return isFree(roomIndex, nightIndex(night));
+    }
+
+    /**
+     * Number of free rooms of {@code type} on each night of the window.
+     */
+    public int[] getFreeCounts(RoomType type) {
+        return freeCounts.get(type).clone();
+    }
+
+    public int getFreeCount(RoomType type, LocalDate night) {
+        return freeCounts.get(type)[nightIndex(night)];
+    }
+
+    private int nightIndex(LocalDate night) {
+        long index = ChronoUnit.DAYS.between(firstNight, night);
+        if (index < 0 || index >= nights) {
+            throw new IndexOutOfBoundsException(night + " is outside the matrix window");
+        }
+        return (int) index;
+    }
+}
@@ -0,0 +1,10 @@
+package com.hotel.service;
+
+import java.time.LocalDate;
+
+/**
+ * One stay within a group booking.
+ */
+public record BookingRequest(String guestName, String guestEmail, int roomNumber,
+                             LocalDate checkIn, LocalDate checkOut) {
+}
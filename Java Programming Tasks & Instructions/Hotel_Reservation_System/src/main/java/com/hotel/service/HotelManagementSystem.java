@@ -1,22 +1,121 @@
 package com.hotel.service;
 
+import com.hotel.metrics.Counter;
+import com.hotel.metrics.HotelMetrics;
+import com.hotel.metrics.Operation;
 import com.hotel.model.*;
+import com.hotel.storage.ArchivedNights;
+import com.hotel.storage.ArchivedReservation;
+import com.hotel.storage.HotelStore;
+import com.hotel.storage.ReservationArchive;
 import java.io.*;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Thread-safe booking engine. A room's calendar and the mutable state of its
+ * reservations are guarded by the lock stripe the room number hashes to, so
+ * bookings for rooms on different stripes proceed in parallel.
+ * <p>
+ * Every change is journaled before it is acknowledged. If the journal
+ * append fails the change is taken back and an {@link UncheckedIOException}
+ * is thrown; the journal stays unavailable afterwards, so every later
+ * change fails the same way until the hotel is reopened.
+ */
 public class HotelManagementSystem {
-    private List<Room> rooms;
-    private List<Reservation> reservations;
-    private static final String ROOMS_FILE = "hotel_rooms.dat";
-    private static final String RESERVATIONS_FILE = "reservations.dat";
+    private static final int LOCK_STRIPES = 64;
+    private static final int PARALLEL_MATRIX_ROOMS = 256;
+    private static final int SEARCH_CACHE_ENTRIES = 10_000;
+    private static final Duration SEARCH_CACHE_TTL = Duration.ofSeconds(30);
+    private static final String ARCHIVE_FILE = "reservations.archive";
+    public static final int DEFAULT_MAX_STAY_NIGHTS = 365;
+    // Keeps the per-night calendars, rate tables and analytics series to a few centuries
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LAST_NIGHT = LocalDate.of(2199, 12, 31);
+
+    private final List<Room> rooms = new CopyOnWriteArrayList<>();
+    // Sorted by id so reservations can be paged through with a stable cursor
+    private final NavigableMap<String, Reservation> reservationsById = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Room> roomsByNumber = new ConcurrentHashMap<>();
+    private final Map<RoomType, List<Room>> roomsByType = new EnumMap<>(RoomType.class);
+    private final Map<Integer, RoomCalendar> calendars = new ConcurrentHashMap<>();
+    private final ReentrantLock[] roomLocks = new ReentrantLock[LOCK_STRIPES];
+    private final SearchCache searchCache = new SearchCache(SEARCH_CACHE_ENTRIES, SEARCH_CACHE_TTL);
+    private final RevenueAnalytics analytics = new RevenueAnalytics();
+    private final PricingEngine pricing = new PricingEngine(analytics);
+    private final HotelMetrics metrics = new HotelMetrics();
+    private final LongAdder liveReservations = new LongAdder();
+    private final Waitlist waitlist = new Waitlist();
+    private final List<Consumer<WaitlistMatch>> waitlistListeners = new CopyOnWriteArrayList<>();
+    private final HotelStore store;
+    private final ReservationArchive archive;
+    private final Object archiveLock = new Object();
+    // Nights of archived stays, kept apart so snapshots can carry them; guarded by archivedNightsLock
+    private final Object archivedNightsLock = new Object();
+    private final Map<Integer, RoomCalendar> archivedCalendars = new HashMap<>();
+    private RevenueAnalytics archivedAnalytics = new RevenueAnalytics();
+    private boolean archivedNightsLoaded;
+    private ScheduledExecutorService archiver;
+    private volatile int maxStayNights = DEFAULT_MAX_STAY_NIGHTS;
 
     public HotelManagementSystem() {
-        this.rooms = new ArrayList<>();
-        this.reservations = new ArrayList<>();
-        initializeRooms();
-        loadData();
+        this(Path.of(""));
+    }
+
+    public HotelManagementSystem(Path dataDirectory) {
+        this(dataDirectory, true);
+    }
+
+    /**
+     * @param createDefaultRooms whether an empty hotel starts with the
+     *                           sample rooms; hotels in a chain do not
+     */
+    public HotelManagementSystem(Path dataDirectory, boolean createDefaultRooms) {
+        // Every type gets its list up front so the EnumMap is never modified concurrently
+        for (RoomType type : RoomType.values()) {
+            roomsByType.put(type, new CopyOnWriteArrayList<>());
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            roomLocks[i] = new ReentrantLock();
+        }
+        this.store = new HotelStore(dataDirectory, this::currentState);
+        try {
+            this.archive = new ReservationArchive(dataDirectory.resolve(ARCHIVE_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening reservation archive", e);
+        }
+        store.setMetrics(metrics);
+        archive.setMetrics(metrics);
+        metrics.registerGauge("rooms", rooms::size);
+        metrics.registerGauge("reservations_live", liveReservations::sum);
+        metrics.registerGauge("reservations_archived", archive::size);
+        metrics.registerGauge("waitlist", waitlist::size);
+        try {
+            loadData();
+        } catch (RuntimeException e) {
+            // Releases the store's compactor thread and the archive file of a hotel that never opened
+            close();
+            throw e;
+        }
+        if (createDefaultRooms) {
+            initializeRooms();
+        }
     }
 
     private void initializeRooms() {
@@ -30,118 +129,1111 @@ public class HotelManagementSystem {
             addRoom(new Room(401, RoomType.EXECUTIVE, 349.99));
             addRoom(new Room(501, RoomType.PRESIDENTIAL, 999.99));
         }
-    }\n
-    public void addRoom(Room room) {
+    }
+
+    public synchronized void addRoom(Room room) {
         rooms.add(room);
-        saveRooms();
+        indexRoom(room);
+        searchCache.invalidate(room.getType());
+        persist(() -> store.appendRoom(room), () -> {
+            rooms.remove(room);
+            unindexRoom(room);
+            searchCache.invalidate(room.getType());
+        });
     }
 
+    /**
+     * Adds the rooms whose numbers are not taken yet.
+     *
+     * @return the number of rooms added
+     */
+    public synchronized int importRooms(List<Room> imported) {
+        int added = 0;
+        for (Room room : imported) {
+            if (findRoomByNumber(room.getRoomNumber()) == null) {
+                addRoom(room);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public List<Room> getRooms() {
+        return Collections.unmodifiableList(rooms);
+    }
+
+    /**
+     * Longest stay that can be searched, quoted, booked or waitlisted.
+     * Defaults to {@value #DEFAULT_MAX_STAY_NIGHTS} nights.
+     */
+    public void setMaxStayNights(int nights) {
+        if (nights <= 0) {
+            throw new IllegalArgumentException("Maximum stay must be at least one night");
+        }
+        maxStayNights = nights;
+    }
+
+    public int getMaxStayNights() {
+        return maxStayNights;
+    }
+
+    /**
+     * Results are served from the search cache when possible and are
+     * unmodifiable.
+     *
+     * @throws IllegalArgumentException if the stay is empty, longer than
+     *                                  {@link #getMaxStayNights()} or
+     *                                  outside the supported dates
+     */
     public List<Room> searchAvailableRooms(RoomType type, LocalDate checkIn, LocalDate checkOut) {
-        return rooms.stream()
-                .filter(room -> type == null || room.getType() == type)
-                .filter(Room::isAvailable)
-                .filter(room -> isRoomAvailable(room.getRoomNumber(), checkIn, checkOut))
-                .collect(Collectors.toList());
+        requireValidStay(checkIn, checkOut);
+        long start = System.nanoTime();
+        List<Room> available = searchRooms(type, checkIn, checkOut);
+        metrics.recordSince(Operation.SEARCH, start);
+        return available;
+    }
+
+    private List<Room> searchRooms(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        List<Room> cached = searchCache.get(type, checkIn, checkOut);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = searchCache.generation();
+        List<Room> candidates = type == null ? rooms : roomsByType.get(type);
+        List<Room> available = candidates.stream()
+                .filter(room -> isRoomAvailable(room, checkIn, checkOut))
+                .collect(Collectors.toUnmodifiableList());
+        searchCache.put(type, checkIn, checkOut, available, generation);
+        return available;
+    }
+
+    public SearchCache.Stats getSearchCacheStats() {
+        return searchCache.getStats();
     }
 
-    public Reservation makeReservation(String guestName, String guestEmail, int roomNumber, 
+    /**
+     * Latencies, counters and gauges for this hotel; see
+     * {@link HotelMetrics#registerMBean} to publish them over JMX.
+     */
+    public HotelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Occupancy, ADR and RevPAR by period, kept current with every booking,
+     * cancellation and payment.
+     */
+    public RevenueAnalytics getRevenueAnalytics() {
+        return analytics;
+    }
+
+    /**
+     * Seasonal, weekday and occupancy rules applied to new bookings.
+     */
+    public PricingEngine getPricingEngine() {
+        return pricing;
+    }
+
+    /**
+     * Current price of a stay in {@code room}, as a booking made now would be charged.
+     *
+     * @throws IllegalArgumentException if the stay is not one that could be booked
+     */
+    public double quote(Room room, LocalDate checkIn, LocalDate checkOut) {
+        requireValidStay(checkIn, checkOut);
+        return pricing.quote(room, checkIn, checkOut);
+    }
+
+    /**
+     * Builds the availability of every room for the nights {@code [from, to)}
+     * in one pass over the room calendars. Properties with many rooms are
+     * split across the common fork-join pool.
+     */
+    public AvailabilityMatrix getAvailabilityMatrix(LocalDate from, LocalDate to) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("Date window must contain at least one night");
+        }
+        long start = System.nanoTime();
+        List<Room> snapshot = List.copyOf(rooms);
+        int nights = Math.toIntExact(ChronoUnit.DAYS.between(from, to));
+        int wordsPerRoom = AvailabilityMatrix.wordsPerRoom(nights);
+        long[] freeBits = new long[Math.multiplyExact(snapshot.size(), wordsPerRoom)];
+        long fromDay = from.toEpochDay();
+
+        IntStream rows = IntStream.range(0, snapshot.size());
+        if (snapshot.size() >= PARALLEL_MATRIX_ROOMS) {
+            rows = rows.parallel();
+        }
+        rows.forEach(row -> {
+            int roomNumber = snapshot.get(row).getRoomNumber();
+            ReentrantLock lock = lockFor(roomNumber);
+            lock.lock();
+            try {
+                calendars.get(roomNumber).copyFreeNights(fromDay, nights, freeBits, row * wordsPerRoom);
+            } finally {
+                lock.unlock();
+            }
+        });
+        AvailabilityMatrix matrix = new AvailabilityMatrix(snapshot, from, nights, freeBits);
+        metrics.recordSince(Operation.AVAILABILITY_MATRIX, start);
+        return matrix;
+    }
+
+    /**
+     * @return the reservation, or null if the room is unknown or taken
+     * @throws IllegalArgumentException if the guest name or email is too
+     *                                  long to be stored, or the stay is
+     *                                  empty, too long or outside the
+     *                                  supported dates
+     */
+    public Reservation makeReservation(String guestName, String guestEmail, int roomNumber,
                                      LocalDate checkIn, LocalDate checkOut) {
+        requireStorable(guestName, guestEmail);
+        requireValidStay(checkIn, checkOut);
+        long start = System.nanoTime();
+        Reservation reservation = book(guestName, guestEmail, roomNumber, checkIn, checkOut);
+        metrics.recordSince(Operation.BOOK, start);
+        metrics.increment(reservation == null ? Counter.BOOKINGS_REJECTED : Counter.BOOKINGS);
+        return reservation;
+    }
+
+    private Reservation book(String guestName, String guestEmail, int roomNumber,
+                             LocalDate checkIn, LocalDate checkOut) {
         Room room = findRoomByNumber(roomNumber);
-        if (room == null || !room.isAvailable() || !isRoomAvailable(roomNumber, checkIn, checkOut)) {
+        if (room == null) {
             return null;
         }
 
-        Reservation reservation = new Reservation(guestName, guestEmail, room, checkIn, checkOut);
-        reservations.add(reservation);
-        room.setAvailable(false);
-        
-        saveReservations();
-        saveRooms();
-        
-        return reservation;
+        ReentrantLock lock = lockFor(roomNumber);
+        lock.lock();
+        try {
+            RoomCalendar calendar = calendars.get(roomNumber);
+            if (!calendar.isFree(checkIn, checkOut)) {
+                return null;
+            }
+
+            Reservation reservation = newReservation(guestName, guestEmail, room, checkIn, checkOut);
+            calendar.occupy(checkIn, checkOut);
+            searchCache.invalidate(room.getType(), checkIn, checkOut);
+            analytics.recordBooking(reservation);
+
+            persist(() -> store.appendReservationCreated(reservation), () -> undoBooking(reservation));
+
+            return reservation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Books a block of stays all or nothing. Every involved room's lock
+     * stripe is held for the whole batch, the stays are checked against the
+     * calendars and against each other in one pass, and the batch is written
+     * to the journal with a single append.
+     *
+     * @return the new reservations in request order, or an empty list if any
+     *         request cannot be honored
+     * @throws IllegalArgumentException if a guest name or email is too long
+     *                                  to be stored, or a stay is not one
+     *                                  {@link #makeReservation} would accept
+     */
+    public List<Reservation> makeReservations(List<BookingRequest> requests) {
+        for (BookingRequest request : requests) {
+            requireStorable(request.guestName(), request.guestEmail());
+            requireValidStay(request.checkIn(), request.checkOut());
+        }
+        long start = System.nanoTime();
+        List<Reservation> created = bookGroup(requests);
+        metrics.recordSince(Operation.BOOK_GROUP, start);
+        if (created.isEmpty() && !requests.isEmpty()) {
+            metrics.increment(Counter.BOOKINGS_REJECTED);
+        }
+        metrics.add(Counter.BOOKINGS, created.size());
+        return created;
+    }
+
+    private List<Reservation> bookGroup(List<BookingRequest> requests) {
+        List<Room> requestedRooms = new ArrayList<>(requests.size());
+        for (BookingRequest request : requests) {
+            Room room = findRoomByNumber(request.roomNumber());
+            if (room == null) {
+                return List.of();
+            }
+            requestedRooms.add(room);
+        }
+
+        SortedSet<Integer> stripes = lockStripes(requests.stream().map(BookingRequest::roomNumber).toList());
+        try {
+            int occupied = 0;
+            for (; occupied < requests.size(); occupied++) {
+                BookingRequest request = requests.get(occupied);
+                RoomCalendar calendar = calendars.get(request.roomNumber());
+                if (!calendar.isFree(request.checkIn(), request.checkOut())) {
+                    break;
+                }
+                calendar.occupy(request.checkIn(), request.checkOut());
+            }
+            if (occupied < requests.size()) {
+                for (int i = 0; i < occupied; i++) {
+                    BookingRequest request = requests.get(i);
+                    calendars.get(request.roomNumber()).release(request.checkIn(), request.checkOut());
+                }
+                return List.of();
+            }
+
+            List<Reservation> created = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                BookingRequest request = requests.get(i);
+                Room room = requestedRooms.get(i);
+                Reservation reservation = newReservation(request.guestName(), request.guestEmail(), room,
+                        request.checkIn(), request.checkOut());
+                searchCache.invalidate(room.getType(), request.checkIn(), request.checkOut());
+                analytics.recordBooking(reservation);
+                created.add(reservation);
+            }
+
+            persist(() -> store.appendReservationsCreated(created), () -> created.forEach(this::undoBooking));
+
+            return created;
+        } finally {
+            unlockStripes(stripes);
+        }
     }
 
     public boolean cancelReservation(String reservationId) {
-        return reservations.stream()
-                .filter(r -> r.getReservationId().equals(reservationId) && !r.isCancelled())
-                .findFirst()
-                .map(reservation -> {
-                    reservation.cancel();
-                    saveReservations();
-                    saveRooms();
-                    return true;
-                })
-                .orElse(false);
+        long start = System.nanoTime();
+        boolean cancelled = cancel(reservationId);
+        metrics.recordSince(Operation.CANCEL, start);
+        if (cancelled) {
+            metrics.increment(Counter.CANCELLATIONS);
+        }
+        return cancelled;
+    }
+
+    private boolean cancel(String reservationId) {
+        Reservation reservation = reservationsById.get(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+
+        ReentrantLock lock = lockFor(reservation.getRoom().getRoomNumber());
+        lock.lock();
+        try {
+            if (reservation.isCancelled()) {
+                return false;
+            }
+            reservation.cancel();
+            calendarOf(reservation).release(reservation.getCheckInDate(), reservation.getCheckOutDate());
+            searchCache.invalidate(reservation.getRoom().getType(),
+                    reservation.getCheckInDate(), reservation.getCheckOutDate());
+            analytics.recordCancellation(reservation);
+            persist(() -> store.appendReservationCancelled(reservationId), () -> {
+                // The stripe is still held, so nobody has booked the released nights
+                reservation.revertCancellation();
+                calendarOf(reservation).occupy(reservation.getCheckInDate(), reservation.getCheckOutDate());
+                searchCache.invalidate(reservation.getRoom().getType(),
+                        reservation.getCheckInDate(), reservation.getCheckOutDate());
+                analytics.recordBooking(reservation);
+                if (reservation.isPaid()) {
+                    analytics.recordPayment(reservation);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        fillFromWaitlist(reservation.getRoom(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+        return true;
+    }
+
+    /**
+     * Puts a guest on the waitlist for a room of {@code type}. When a
+     * cancellation frees such a room for the whole stay, the guest gets it:
+     * booked outright with {@code autoBook}, otherwise offered through the
+     * waitlist listeners. Either way the entry leaves the waitlist. Entries
+     * live in memory only.
+     *
+     * @param priority higher values are served first; equal priorities in
+     *                 the order they joined
+     * @return the entry
+     * @throws IllegalArgumentException if the type is missing, the guest
+     *                                  name or email is too long to be
+     *                                  stored, or the stay is not one
+     *                                  {@link #makeReservation} would accept
+     */
+    public WaitlistEntry joinWaitlist(String guestName, String guestEmail, RoomType type,
+                                      LocalDate checkIn, LocalDate checkOut, int priority, boolean autoBook) {
+        if (type == null) {
+            throw new IllegalArgumentException("Room type is required");
+        }
+        requireStorable(guestName, guestEmail);
+        requireValidStay(checkIn, checkOut);
+        metrics.increment(Counter.WAITLIST_JOINS);
+        return waitlist.add(guestName, guestEmail, type, checkIn, checkOut, priority, autoBook);
+    }
+
+    public boolean leaveWaitlist(String entryId) {
+        return waitlist.remove(entryId);
+    }
+
+    /**
+     * @return the entry while it is still waiting
+     */
+    public Optional<WaitlistEntry> findWaitlistEntry(String entryId) {
+        return Optional.ofNullable(waitlist.get(entryId));
+    }
+
+    /**
+     * Registers a callback invoked with every booking or offer made from the
+     * waitlist, on the thread that cancelled the freed reservation.
+     */
+    public void addWaitlistListener(Consumer<WaitlistMatch> listener) {
+        waitlistListeners.add(listener);
+    }
+
+    /**
+     * Serves waiting guests whose stays overlap nights just freed in
+     * {@code room}, in priority order. Each entry is taken off the list
+     * before it is served, so concurrent cancellations never serve it twice.
+     */
+    private void fillFromWaitlist(Room room, LocalDate from, LocalDate to) {
+        if (waitlist.size() == 0) {
+            return;
+        }
+        // Offers do not book the room, so their nights are held back from later entries in this pass
+        List<WaitlistEntry> offered = new ArrayList<>();
+        for (WaitlistEntry entry : waitlist.overlapping(room.getType(), from, to)) {
+            if (offered.stream().anyMatch(o -> entry.overlaps(o.checkIn(), o.checkOut()))
+                    || !isRoomAvailable(room, entry.checkIn(), entry.checkOut())
+                    || !waitlist.remove(entry.entryId())) {
+                continue;
+            }
+            if (entry.autoBook()) {
+                Reservation reservation;
+                try {
+                    reservation = makeReservation(entry.guestName(), entry.guestEmail(),
+                            room.getRoomNumber(), entry.checkIn(), entry.checkOut());
+                } catch (IllegalArgumentException e) {
+                    // The maximum stay was lowered after the guest joined; the entry cannot be served
+                    continue;
+                } catch (UncheckedIOException e) {
+                    // The cancellation itself was saved; no later entry can be booked either
+                    waitlist.restore(entry);
+                    return;
+                }
+                if (reservation == null) {
+                    // Booked by someone else since the availability check
+                    waitlist.restore(entry);
+                    continue;
+                }
+                metrics.increment(Counter.WAITLIST_BOOKINGS);
+                notifyWaitlist(new WaitlistMatch(entry, room, reservation));
+            } else {
+                offered.add(entry);
+                metrics.increment(Counter.WAITLIST_OFFERS);
+                notifyWaitlist(new WaitlistMatch(entry, room, null));
+            }
+        }
+    }
+
+    private void notifyWaitlist(WaitlistMatch match) {
+        for (Consumer<WaitlistMatch> listener : waitlistListeners) {
+            try {
+                listener.accept(match);
+            } catch (RuntimeException e) {
+                System.out.println("Error notifying waitlist listener: " + e.getMessage());
+            }
+        }
     }
 
     public boolean processPayment(String reservationId) {
-        return reservations.stream()
-                .filter(r -> r.getReservationId().equals(reservationId) && !r.isCancelled())
-                .findFirst()
-                .map(reservation -> {
-                    reservation.processPayment();
-                    saveReservations();
-                    return true;
-                })
-                .orElse(false);
+        long start = System.nanoTime();
+        boolean paid = pay(reservationId);
+        metrics.recordSince(Operation.PAY, start);
+        if (paid) {
+            metrics.increment(Counter.PAYMENTS);
+        }
+        return paid;
+    }
+
+    private boolean pay(String reservationId) {
+        Reservation reservation = reservationsById.get(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+
+        ReentrantLock lock = lockFor(reservation.getRoom().getRoomNumber());
+        lock.lock();
+        try {
+            if (reservation.isCancelled()) {
+                return false;
+            }
+            boolean newlyPaid = !reservation.isPaid();
+            if (newlyPaid) {
+                reservation.processPayment();
+                analytics.recordPayment(reservation);
+            }
+            persist(() -> store.appendReservationPaid(reservationId), () -> {
+                if (newlyPaid) {
+                    undoPayment(reservation);
+                }
+            });
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks several reservations as paid with a single journal append.
+     * Unknown and cancelled reservations are skipped.
+     *
+     * @return the ids that are now paid
+     */
+    public Set<String> processPayments(Collection<String> reservationIds) {
+        long start = System.nanoTime();
+        Set<String> paid = payAll(reservationIds);
+        metrics.recordSince(Operation.PAY_BATCH, start);
+        metrics.add(Counter.PAYMENTS, paid.size());
+        return paid;
+    }
+
+    private Set<String> payAll(Collection<String> reservationIds) {
+        List<Reservation> found = new ArrayList<>(reservationIds.size());
+        for (String reservationId : reservationIds) {
+            Reservation reservation = reservationsById.get(reservationId);
+            if (reservation != null) {
+                found.add(reservation);
+            }
+        }
+
+        SortedSet<Integer> stripes = lockStripes(found.stream().map(r -> r.getRoom().getRoomNumber()).toList());
+        try {
+            List<String> paid = new ArrayList<>(found.size());
+            List<Reservation> newlyPaid = new ArrayList<>();
+            for (Reservation reservation : found) {
+                if (!reservation.isCancelled()) {
+                    if (!reservation.isPaid()) {
+                        reservation.processPayment();
+                        analytics.recordPayment(reservation);
+                        newlyPaid.add(reservation);
+                    }
+                    paid.add(reservation.getReservationId());
+                }
+            }
+            persist(() -> store.appendReservationsPaid(paid), () -> newlyPaid.forEach(this::undoPayment));
+            return new HashSet<>(paid);
+        } finally {
+            unlockStripes(stripes);
+        }
     }
 
+    /**
+     * Looks in the live set first, then in the archive. Archived
+     * reservations are returned as read-only copies.
+     *
+     * @throws UncheckedIOException if the archive cannot be read
+     */
     public Optional<Reservation> findReservation(String reservationId) {
-        return reservations.stream()
-                .filter(r -> r.getReservationId().equals(reservationId))
-                .findFirst();
+        long start = System.nanoTime();
+        Optional<Reservation> found = lookup(reservationId);
+        metrics.recordSince(Operation.LOOKUP, start);
+        return found;
+    }
+
+    private Optional<Reservation> lookup(String reservationId) {
+        Reservation reservation = reservationsById.get(reservationId);
+        if (reservation != null) {
+            return Optional.of(reservation);
+        }
+        try {
+            return archive.find(reservationId).map(this::restoreArchived);
+        } catch (IOException e) {
+            // Not "not found": the reservation may well be in the part that could not be read
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            throw new UncheckedIOException("Error reading reservation archive", e);
+        }
+    }
+
+    /**
+     * Archived reservations whose stay overlaps the nights {@code [from, to)}.
+     *
+     * @throws UncheckedIOException if the archive cannot be read
+     */
+    public List<Reservation> getArchivedReservations(LocalDate from, LocalDate to) {
+        List<Reservation> found = new ArrayList<>();
+        try {
+            for (ArchivedReservation archived : archive.findOverlapping(from, to)) {
+                // An archive run interrupted before its journal append can leave a live duplicate
+                if (!reservationsById.containsKey(archived.reservationId())) {
+                    Reservation reservation = restoreArchived(archived);
+                    if (reservation != null) {
+                        found.add(reservation);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            throw new UncheckedIOException("Error reading reservation archive", e);
+        }
+        return found;
+    }
+
+    /**
+     * Streams every archived reservation as a read-only copy, one archive
+     * block in memory at a time.
+     */
+    public void forEachArchivedReservation(Consumer<Reservation> action) throws IOException {
+        archive.forEach(archived -> {
+            // An archive run interrupted before its journal append can leave a live duplicate
+            if (!reservationsById.containsKey(archived.reservationId())) {
+                Reservation reservation = restoreArchived(archived);
+                if (reservation != null) {
+                    action.accept(reservation);
+                }
+            }
+        });
+    }
+
+    public long getArchivedCount() {
+        return archive.size();
+    }
+
+    /**
+     * Moves every reservation that checked out before {@code cutoff} from the
+     * live set into the archive, a block at a time. Archived nights stay
+     * booked and keep counting in the revenue analytics, but the
+     * reservations can no longer be cancelled or paid. A block whose move
+     * cannot be saved stays live, and the run stops there.
+     *
+     * @return the number of reservations archived
+     */
+    public int archiveReservations(LocalDate cutoff) {
+        synchronized (archiveLock) {
+            long start = System.nanoTime();
+            // Sorting by check-in gives each block a narrow date range for range queries
+            List<Reservation> candidates = reservationsById.values().stream()
+                    .filter(r -> r.getCheckOutDate().isBefore(cutoff))
+                    .sorted(Comparator.comparing(Reservation::getCheckInDate))
+                    .toList();
+            int archived = 0;
+            for (int from = 0; from < candidates.size(); from += ReservationArchive.BLOCK_RECORDS) {
+                List<Reservation> block = candidates.subList(from,
+                        Math.min(from + ReservationArchive.BLOCK_RECORDS, candidates.size()));
+                SortedSet<Integer> stripes = lockStripes(block.stream().map(r -> r.getRoom().getRoomNumber()).toList());
+                try {
+                    archive.append(block.stream().map(HotelManagementSystem::toArchived).toList());
+                    // Moved before journaling, so a snapshot triggered by the append has them in its archived totals
+                    synchronized (archivedNightsLock) {
+                        block.forEach(r -> {
+                            unindexReservation(r.getReservationId());
+                            recordArchived(r);
+                        });
+                    }
+                    try {
+                        store.appendReservationsArchived(block.stream().map(Reservation::getReservationId).toList());
+                    } catch (IOException e) {
+                        // The archive copies are ignored while the reservations are live
+                        synchronized (archivedNightsLock) {
+                            block.forEach(r -> {
+                                indexReservation(r);
+                                unrecordArchived(r);
+                            });
+                        }
+                        throw e;
+                    }
+                    archived += block.size();
+                } catch (IOException e) {
+                    metrics.increment(Counter.PERSISTENCE_ERRORS);
+                    System.out.println("Error archiving reservations: " + e.getMessage());
+                    break;
+                } finally {
+                    unlockStripes(stripes);
+                }
+            }
+            metrics.recordSince(Operation.ARCHIVE, start);
+            metrics.add(Counter.ARCHIVED_RESERVATIONS, archived);
+            return archived;
+        }
+    }
+
+    /**
+     * Archives reservations that checked out more than {@code horizon} ago,
+     * right away and then once a day in the background. Null turns
+     * automatic archiving off.
+     */
+    public synchronized void setArchiveHorizon(Period horizon) {
+        if (archiver != null) {
+            archiver.shutdown();
+            archiver = null;
+        }
+        if (horizon == null) {
+            return;
+        }
+        archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hotel-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiver.scheduleWithFixedDelay(() -> archiveReservations(LocalDate.now().minus(horizon)),
+                0, 1, TimeUnit.DAYS);
+    }
+
+    /**
+     * Looks up several reservations at once. The result lists one entry per
+     * requested id, in iteration order, empty where the id is unknown.
+     */
+    public List<Optional<Reservation>> findReservations(Collection<String> reservationIds) {
+        List<Optional<Reservation>> found = new ArrayList<>(reservationIds.size());
+        for (String reservationId : reservationIds) {
+            found.add(findReservation(reservationId));
+        }
+        return found;
+    }
+
+    /**
+     * Returns up to {@code limit} reservations in id order, starting after
+     * {@code cursor} (null for the first page). Paging holds no locks;
+     * reservations added behind the cursor are simply not seen.
+     */
+    public ReservationPage getReservations(String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        Map<String, Reservation> tail = cursor == null ? reservationsById : reservationsById.tailMap(cursor, false);
+        List<Reservation> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Reservation reservation : tail.values()) {
+            page.add(reservation);
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        String last = page.isEmpty() ? null : page.get(page.size() - 1).getReservationId();
+        String nextCursor = last != null && reservationsById.higherKey(last) != null ? last : null;
+        return new ReservationPage(page, nextCursor);
+    }
+
+    /**
+     * Adds previously exported reservations with their ids, prices and
+     * payment state. Records for unknown rooms, ids that already exist,
+     * fields too long to be stored, stays that could not be booked and
+     * active stays that clash with a booking are skipped. The involved lock
+     * stripes are taken once for the batch and the batch is journaled with a
+     * single append.
+     *
+     * @return the number of records imported
+     */
+    public int importReservations(List<ReservationRecord> records) {
+        long start = System.nanoTime();
+        SortedSet<Integer> stripes = lockStripes(records.stream().map(ReservationRecord::roomNumber).toList());
+        try {
+            List<Reservation> imported = new ArrayList<>(records.size());
+            for (ReservationRecord record : records) {
+                Room room = findRoomByNumber(record.roomNumber());
+                if (room == null || stayProblem(record.checkIn(), record.checkOut()) != null
+                        || reservationsById.containsKey(record.reservationId())
+                        || !HotelStore.isStorable(record.reservationId())
+                        || !HotelStore.isStorable(record.guestName())
+                        || !HotelStore.isStorable(record.guestEmail())) {
+                    continue;
+                }
+                RoomCalendar calendar = calendars.get(record.roomNumber());
+                if (!record.cancelled() && !calendar.isFree(record.checkIn(), record.checkOut())) {
+                    continue;
+                }
+
+                Reservation reservation = new Reservation(record.reservationId(), record.guestName(),
+                        record.guestEmail(), room, record.checkIn(), record.checkOut(), record.totalPrice());
+                // Indexed first, so an id taken by a concurrent booking skips the record untouched
+                if (!indexReservation(reservation)) {
+                    continue;
+                }
+                if (record.paid()) {
+                    reservation.processPayment();
+                }
+                if (record.cancelled()) {
+                    reservation.cancel();
+                } else {
+                    calendar.occupy(record.checkIn(), record.checkOut());
+                    searchCache.invalidate(room.getType(), record.checkIn(), record.checkOut());
+                    analytics.recordBooking(reservation);
+                    if (record.paid()) {
+                        analytics.recordPayment(reservation);
+                    }
+                }
+                imported.add(reservation);
+            }
+
+            persist(() -> store.appendReservationsImported(imported), () -> imported.forEach(this::undoBooking));
+            return imported.size();
+        } finally {
+            unlockStripes(stripes);
+            metrics.recordSince(Operation.IMPORT, start);
+        }
+    }
+
+    // Checked before any state changes, so a record that cannot be journaled never books a room
+    private static void requireStorable(String guestName, String guestEmail) {
+        if (!HotelStore.isStorable(guestName) || !HotelStore.isStorable(guestEmail)) {
+            throw new IllegalArgumentException("Guest name or email is too long");
+        }
+    }
+
+    // Bounds every per-night structure a stay touches: calendars, rate tables, analytics and cache indexes
+    private void requireValidStay(LocalDate checkIn, LocalDate checkOut) {
+        String problem = stayProblem(checkIn, checkOut);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+    }
+
+    // Null if the stay could be booked
+    private String stayProblem(LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            return "Check-out must be after check-in";
+        }
+        if (checkIn.isBefore(FIRST_NIGHT) || checkOut.isAfter(LAST_NIGHT)) {
+            return "Dates must be between " + FIRST_NIGHT + " and " + LAST_NIGHT;
+        }
+        int limit = maxStayNights;
+        if (ChronoUnit.DAYS.between(checkIn, checkOut) > limit) {
+            return "A stay can be at most " + limit + " nights";
+        }
+        return null;
     }
 
     private Room findRoomByNumber(int roomNumber) {
-        return rooms.stream()
-                .filter(room -> room.getRoomNumber() == roomNumber)
-                .findFirst()
-                .orElse(null);
+        return roomsByNumber.get(roomNumber);
+    }
+
+    private boolean isRoomAvailable(Room room, LocalDate checkIn, LocalDate checkOut) {
+        ReentrantLock lock = lockFor(room.getRoomNumber());
+        lock.lock();
+        try {
+            return calendars.get(room.getRoomNumber()).isFree(checkIn, checkOut);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(int roomNumber) {
+        return roomLocks[stripeOf(roomNumber)];
+    }
+
+    private static int stripeOf(int roomNumber) {
+        return Math.floorMod(roomNumber, LOCK_STRIPES);
+    }
+
+    // Stripes are always taken in ascending order so batches cannot deadlock
+    private SortedSet<Integer> lockStripes(Collection<Integer> roomNumbers) {
+        SortedSet<Integer> stripes = new TreeSet<>();
+        roomNumbers.forEach(roomNumber -> stripes.add(stripeOf(roomNumber)));
+        stripes.forEach(stripe -> roomLocks[stripe].lock());
+        return stripes;
+    }
+
+    private void unlockStripes(SortedSet<Integer> stripes) {
+        stripes.forEach(stripe -> roomLocks[stripe].unlock());
+    }
+
+    // Index maintenance
+    private void indexRoom(Room room) {
+        roomsByNumber.put(room.getRoomNumber(), room);
+        roomsByType.get(room.getType()).add(room);
+        calendars.computeIfAbsent(room.getRoomNumber(), n -> new RoomCalendar());
+        analytics.roomAdded(room.getType());
+    }
+
+    private void unindexRoom(Room room) {
+        roomsByNumber.remove(room.getRoomNumber(), room);
+        roomsByType.get(room.getType()).remove(room);
+        analytics.roomRemoved(room.getType());
+    }
+
+    // Never replaces a reservation already indexed under the same id
+    private boolean indexReservation(Reservation reservation) {
+        if (reservationsById.putIfAbsent(reservation.getReservationId(), reservation) != null) {
+            return false;
+        }
+        liveReservations.increment();
+        return true;
+    }
+
+    // Creates and indexes a booking, drawing a new id in the unlikely case the random one is taken
+    private Reservation newReservation(String guestName, String guestEmail, Room room,
+                                       LocalDate checkIn, LocalDate checkOut) {
+        double price = pricing.quote(room, checkIn, checkOut);
+        Reservation reservation;
+        do {
+            reservation = new Reservation(guestName, guestEmail, room, checkIn, checkOut, price);
+        } while (!indexReservation(reservation));
+        return reservation;
+    }
+
+    private void unindexReservation(String reservationId) {
+        if (reservationsById.remove(reservationId) != null) {
+            liveReservations.decrement();
+        }
+    }
+
+    // Takes back a booking or import that could not be journaled; called with the room's stripe held
+    private void undoBooking(Reservation reservation) {
+        unindexReservation(reservation.getReservationId());
+        if (!reservation.isCancelled()) {
+            calendarOf(reservation).release(reservation.getCheckInDate(), reservation.getCheckOutDate());
+            searchCache.invalidate(reservation.getRoom().getType(),
+                    reservation.getCheckInDate(), reservation.getCheckOutDate());
+            analytics.recordCancellation(reservation);
+        }
+    }
+
+    // Called with the room's stripe held
+    private void undoPayment(Reservation reservation) {
+        reservation.revertPayment();
+        analytics.recordPaymentReverted(reservation);
+    }
+
+    // Called with archivedNightsLock held, or during load
+    private void recordArchived(Reservation reservation) {
+        if (reservation.isCancelled()) {
+            return;
+        }
+        archivedCalendars.computeIfAbsent(reservation.getRoom().getRoomNumber(), n -> new RoomCalendar())
+                .occupy(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        archivedAnalytics.recordBooking(reservation);
+        if (reservation.isPaid()) {
+            archivedAnalytics.recordPayment(reservation);
+        }
+    }
+
+    // Called with archivedNightsLock held
+    private void unrecordArchived(Reservation reservation) {
+        if (reservation.isCancelled()) {
+            return;
+        }
+        archivedCalendars.get(reservation.getRoom().getRoomNumber())
+                .release(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        archivedAnalytics.recordCancellation(reservation);
+    }
+
+    // The live reservations and the archived totals are read together, so each stay is in exactly one of them
+    private HotelStore.State currentState() {
+        synchronized (archivedNightsLock) {
+            List<ArchivedNights.RoomNights> roomNights = new ArrayList<>(archivedCalendars.size());
+            archivedCalendars.forEach((roomNumber, calendar) -> roomNights.add(
+                    new ArchivedNights.RoomNights(roomNumber, calendar.originDay(), calendar.occupiedNights())));
+            return new HotelStore.State(List.copyOf(rooms), List.copyOf(reservationsById.values()),
+                    new ArchivedNights(roomNights, archivedAnalytics.nights()));
+        }
     }
 
-    private boolean isRoomAvailable(int roomNumber, LocalDate checkIn, LocalDate checkOut) {
-        return reservations.stream()
-                .filter(r -> r.getRoom().getRoomNumber() == roomNumber && !r.isCancelled())
-                .noneMatch(r -> !checkOut.isBefore(r.getCheckInDate()) && !checkIn.isAfter(r.getCheckOutDate()));
+    private RoomCalendar calendarOf(Reservation reservation) {
+        return calendars.computeIfAbsent(reservation.getRoom().getRoomNumber(), n -> new RoomCalendar());
+    }
+
+    private static ArchivedReservation toArchived(Reservation reservation) {
+        return new ArchivedReservation(reservation.getReservationId(), reservation.getGuestName(),
+                reservation.getGuestEmail(), reservation.getRoom().getRoomNumber(),
+                reservation.getCheckInDate(), reservation.getCheckOutDate(), reservation.getTotalPrice(),
+                reservation.isPaid(), reservation.isCancelled());
+    }
+
+    // Null if the room no longer exists
+    private Reservation restoreArchived(ArchivedReservation archived) {
+        Room room = findRoomByNumber(archived.roomNumber());
+        if (room == null) {
+            return null;
+        }
+        Reservation reservation = new Reservation(archived.reservationId(), archived.guestName(),
+                archived.guestEmail(), room, archived.checkIn(), archived.checkOut(), archived.totalPrice());
+        if (archived.paid()) {
+            reservation.processPayment();
+        }
+        if (archived.cancelled()) {
+            reservation.cancel();
+        }
+        return reservation;
     }
 
     // File I/O Operations
-    @SuppressWarnings("unchecked")
     private void loadData() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(ROOMS_FILE))) {
-            rooms = (List<Room>) ois.readObject();
-        } catch (FileNotFoundException e) {
-            System.out.println("No existing room data found. Starting with default rooms.");
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error loading room data: " + e.getMessage());
-        }
-
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(RESERVATIONS_FILE))) {
-            reservations = (List<Reservation>) ois.readObject();
-            // Update room availability based on active reservations
-            reservations.stream()
-                    .filter(r -> !r.isCancelled())
-                    .forEach(r -> r.getRoom().setAvailable(false));
-        } catch (FileNotFoundException e) {
-            System.out.println("No existing reservation data found.");
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error loading reservation data: " + e.getMessage());
-        }
-    }
-
-    private void saveRooms() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ROOMS_FILE))) {
-            oos.writeObject(rooms);
+        long start = System.nanoTime();
+        try {
+            store.load(new StoreReplay());
+        } catch (IOException e) {
+            // Starting empty here would write over the data that could not be read
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            throw new UncheckedIOException("Error loading hotel data", e);
+        }
+
+        // Mark the nights of active reservations in the room calendars and analytics
+        reservationsById.values().stream()
+                .filter(r -> !r.isCancelled())
+                .forEach(r -> {
+                    calendarOf(r).occupy(r.getCheckInDate(), r.getCheckOutDate());
+                    analytics.recordBooking(r);
+                    if (r.isPaid()) {
+                        analytics.recordPayment(r);
+                    }
+                });
+
+        // Snapshots from before archived totals were kept need one pass over the archive to rebuild them
+        if (!archivedNightsLoaded && archive.size() > 0) {
+            rebuildArchivedNights();
+        }
+        archivedCalendars.forEach((roomNumber, archived) -> calendars
+                .computeIfAbsent(roomNumber, n -> new RoomCalendar())
+                .occupyAll(archived.originDay(), archived.occupiedNights()));
+        archivedAnalytics.nights().forEach(analytics::addNights);
+        metrics.recordSince(Operation.LOAD, start);
+    }
+
+    // Streams the archive a block at a time; stays also in the live set were never journaled as archived
+    private void rebuildArchivedNights() {
+        archivedCalendars.clear();
+        archivedAnalytics = new RevenueAnalytics();
+        try {
+            archive.forEach(archived -> {
+                if (!reservationsById.containsKey(archived.reservationId())) {
+                    Reservation reservation = restoreArchived(archived);
+                    if (reservation != null) {
+                        recordArchived(reservation);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            // Missing archived nights could be booked twice
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            throw new UncheckedIOException("Error reading reservation archive", e);
+        }
+    }
+
+    /**
+     * Chooses whether changes wait for an fsync before they return.
+     * {@link HotelStore.Durability#BUFFERED} is meant for bulk loads that
+     * finish with a {@link #checkpoint()}.
+     */
+    public void setDurability(HotelStore.Durability durability) {
+        store.setDurability(durability);
+    }
+
+    /**
+     * Writes a snapshot of the current state and waits for it to land on disk.
+     *
+     * @return whether the snapshot was written; if not, changes made with
+     *         {@link HotelStore.Durability#BUFFERED} may not be durable
+     */
+    public boolean checkpoint() {
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            store.compact().get();
+            written = true;
         } catch (IOException e) {
-            System.out.println("Error saving room data: " + e.getMessage());
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            System.out.println("Error writing hotel snapshot: " + e.getMessage());
+        } catch (ExecutionException e) {
+            // The store has already counted and reported the failed snapshot
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        metrics.recordSince(Operation.CHECKPOINT, start);
+        return written;
     }
 
-    private void saveReservations() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(RESERVATIONS_FILE))) {
-            oos.writeObject(reservations);
+    /**
+     * Flushes pending background work and closes the journal.
+     */
+    public void close() {
+        synchronized (this) {
+            if (archiver != null) {
+                archiver.shutdown();
+            }
+        }
+        try {
+            synchronized (archiveLock) {
+                archive.close();
+            }
+            store.close();
         } catch (IOException e) {
-            System.out.println("Error saving reservation data: " + e.getMessage());
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            System.out.println("Error closing hotel data: " + e.getMessage());
+        }
+    }
+
+    // A change the journal did not take is undone, so it is never acknowledged and then lost on restart
+    private void persist(StoreWrite write, Runnable undo) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            undo.run();
+            metrics.increment(Counter.PERSISTENCE_ERRORS);
+            throw new UncheckedIOException("Error saving hotel data", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StoreWrite {
+        void run() throws IOException;
+    }
+
+    private class StoreReplay implements HotelStore.Replay {
+        @Override
+        public void roomAdded(int roomNumber, RoomType type, double pricePerNight) {
+            if (roomsByNumber.containsKey(roomNumber)) {
+                return;
+            }
+            Room room = new Room(roomNumber, type, pricePerNight);
+            rooms.add(room);
+            indexRoom(room);
+        }
+
+        @Override
+        public void reservationCreated(String reservationId, String guestName, String guestEmail,
+                                       int roomNumber, LocalDate checkIn, LocalDate checkOut, double totalPrice) {
+            Room room = findRoomByNumber(roomNumber);
+            if (room == null || reservationsById.containsKey(reservationId)) {
+                return;
+            }
+            Reservation reservation = new Reservation(reservationId, guestName, guestEmail,
+                    room, checkIn, checkOut, totalPrice);
+            indexReservation(reservation);
+        }
+
+        @Override
+        public void reservationCancelled(String reservationId) {
+            Reservation reservation = reservationsById.get(reservationId);
+            if (reservation != null) {
+                reservation.cancel();
+            }
+        }
+
+        @Override
+        public void reservationPaid(String reservationId) {
+            Reservation reservation = reservationsById.get(reservationId);
+            if (reservation != null) {
+                reservation.processPayment();
+            }
+        }
+
+        @Override
+        public void reservationArchived(String reservationId) {
+            Reservation reservation = reservationsById.get(reservationId);
+            // Absent if a snapshot already counted it in its archived totals
+            if (reservation != null) {
+                recordArchived(reservation);
+                unindexReservation(reservationId);
+            }
+        }
+
+        @Override
+        public void archivedNights(ArchivedNights nights) {
+            for (ArchivedNights.RoomNights room : nights.rooms()) {
+                archivedCalendars.computeIfAbsent(room.roomNumber(), n -> new RoomCalendar())
+                        .occupyAll(room.originDay(), room.occupied());
+            }
+            nights.types().forEach(archivedAnalytics::addNights);
+            archivedNightsLoaded = true;
         }
     }
 }
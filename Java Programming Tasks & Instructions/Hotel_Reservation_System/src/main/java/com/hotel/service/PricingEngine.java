@@ -0,0 +1,158 @@
+package com.hotel.service;
+
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices stays from a room's base rate and per-night multipliers for the
+ * season, the weekday and how full rooms of that type already are.
+ *
+ * <p>Season and weekday multipliers depend only on the night, so each type
+ * keeps a cached table of their prefix sums; without occupancy tiers,
+ * quoting any stay is two array reads. A table is rebuilt lazily when the
+ * rules change or a quote falls outside it. Occupancy changes with every
+ * booking, so tiers are applied per night at quote time instead of being
+ * baked into the table; bookings never invalidate it.
+ */
+public class PricingEngine {
+    private static final int DEFAULT_TABLE_NIGHTS = 730;
+
+    private final RevenueAnalytics analytics;
+    private final Map<RoomType, RateTable> tables = new ConcurrentHashMap<>();
+    private volatile Rules rules = new Rules(0, List.of(), Map.of(), new TreeMap<>());
+
+    private record Rules(long version, List<Season> seasons, Map<DayOfWeek, Double> weekdayFactors,
+                         NavigableMap<Double, Double> occupancyTiers) {
+    }
+
+    // prefix[n] is the sum of the multipliers of the n nights starting at originDay
+    private record RateTable(long version, long originDay, double[] prefix) {
+        int nights() {
+            return prefix.length - 1;
+        }
+
+        boolean covers(long fromDay, long toDay) {
+            return fromDay >= originDay && toDay <= originDay + nights();
+        }
+
+        double sum(long fromDay, long toDay) {
+            return prefix[(int) (toDay - originDay)] - prefix[(int) (fromDay - originDay)];
+        }
+    }
+
+    PricingEngine(RevenueAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    public synchronized void addSeason(Season season) {
+        List<Season> seasons = new ArrayList<>(rules.seasons());
+        seasons.add(season);
+        update(seasons, rules.weekdayFactors(), rules.occupancyTiers());
+    }
+
+    public synchronized void setWeekdayFactor(DayOfWeek day, double factor) {
+        Map<DayOfWeek, Double> weekdayFactors = new EnumMap<>(DayOfWeek.class);
+        weekdayFactors.putAll(rules.weekdayFactors());
+        weekdayFactors.put(day, factor);
+        update(rules.seasons(), weekdayFactors, rules.occupancyTiers());
+    }
+
+    /**
+     * Applies {@code factor} to nights on which at least {@code minOccupancy}
+     * (0 to 1) of the rooms of the type are booked. The highest tier reached wins.
+     */
+    public synchronized void addOccupancyTier(double minOccupancy, double factor) {
+        NavigableMap<Double, Double> tiers = new TreeMap<>(rules.occupancyTiers());
+        tiers.put(minOccupancy, factor);
+        update(rules.seasons(), rules.weekdayFactors(), tiers);
+    }
+
+    public synchronized void clearRules() {
+        update(List.of(), Map.of(), new TreeMap<>());
+    }
+
+    /**
+     * @return the price of the nights {@code [checkIn, checkOut)} in
+     *         {@code room}, rounded to cents
+     */
+    public double quote(Room room, LocalDate checkIn, LocalDate checkOut) {
+        long fromDay = checkIn.toEpochDay();
+        long toDay = checkOut.toEpochDay();
+        if (toDay <= fromDay) {
+            return 0;
+        }
+        Rules current = rules;
+        RateTable table = tables.get(room.getType());
+        if (table == null || table.version() != current.version() || !table.covers(fromDay, toDay)) {
+            table = rebuild(room.getType(), fromDay, toDay);
+        }
+        double factors = current.occupancyTiers().isEmpty()
+                ? table.sum(fromDay, toDay)
+                : sumWithTiers(current, table, room.getType(), fromDay, toDay);
+        return Math.round(room.getPricePerNight() * factors * 100) / 100.0;
+    }
+
+    // Scales each night's table factor by the tier its current occupancy reaches
+    private double sumWithTiers(Rules current, RateTable table, RoomType type, long fromDay, long toDay) {
+        double[] occupancy = new double[(int) (toDay - fromDay)];
+        analytics.copyOccupancy(type, fromDay, occupancy);
+        double sum = 0;
+        for (int n = 0; n < occupancy.length; n++) {
+            sum += table.sum(fromDay + n, fromDay + n + 1) * tierFactor(current, occupancy[n]);
+        }
+        return sum;
+    }
+
+    private void update(List<Season> seasons, Map<DayOfWeek, Double> weekdayFactors,
+                        NavigableMap<Double, Double> occupancyTiers) {
+        rules = new Rules(rules.version() + 1, List.copyOf(seasons), weekdayFactors, occupancyTiers);
+        tables.clear();
+    }
+
+    // Covers the requested stay and whatever the current table already covered
+    private synchronized RateTable rebuild(RoomType type, long fromDay, long toDay) {
+        Rules current = rules;
+        RateTable existing = tables.get(type);
+        if (existing != null && existing.version() == current.version() && existing.covers(fromDay, toDay)) {
+            return existing;
+        }
+        long start = fromDay;
+        long end = Math.max(toDay, fromDay + DEFAULT_TABLE_NIGHTS);
+        if (existing != null) {
+            start = Math.min(start, existing.originDay());
+            end = Math.max(end, existing.originDay() + existing.nights());
+        }
+
+        int nights = Math.toIntExact(end - start);
+        double[] prefix = new double[nights + 1];
+        for (int n = 0; n < nights; n++) {
+            LocalDate night = LocalDate.ofEpochDay(start + n);
+            double factor = current.weekdayFactors().getOrDefault(night.getDayOfWeek(), 1.0);
+            for (Season season : current.seasons()) {
+                if (season.covers(night)) {
+                    factor *= season.factor();
+                }
+            }
+            prefix[n + 1] = prefix[n] + factor;
+        }
+
+        RateTable table = new RateTable(current.version(), start, prefix);
+        tables.put(type, table);
+        return table;
+    }
+
+    private static double tierFactor(Rules rules, double occupancy) {
+        Entry<Double, Double> tier = rules.occupancyTiers().floorEntry(occupancy);
+        return tier == null ? 1.0 : tier.getValue();
+    }
+}
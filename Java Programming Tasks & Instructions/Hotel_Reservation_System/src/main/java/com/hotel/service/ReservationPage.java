@@ -0,0 +1,15 @@
+package com.hotel.service;
+
+import com.hotel.model.Reservation;
+import java.util.List;
+
+/**
+ * One page of reservations in id order. {@code nextCursor} is passed back to
+ * fetch the following page and is null on the last one.
+ */
+public record ReservationPage(List<Reservation> reservations, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.hotel.service;
+
+import java.time.LocalDate;
+
+/**
+ * A reservation as exported or imported, with its id, price and state.
+ */
+public record ReservationRecord(String reservationId, String guestName, String guestEmail, int roomNumber,
+                                LocalDate checkIn, LocalDate checkOut, double totalPrice,
+                                boolean paid, boolean cancelled) {
+}
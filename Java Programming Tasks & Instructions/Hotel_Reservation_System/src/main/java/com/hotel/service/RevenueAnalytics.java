@@ -0,0 +1,234 @@
+package com.hotel.service;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.RoomType;
+import com.hotel.storage.ArchivedNights;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-night occupancy and revenue aggregates for each room type, kept up to
+ * date as reservations are booked, cancelled and paid. A stay's total is
+ * spread over its nights in whole cents, so adding and later removing it
+ * leaves the aggregates exactly where they were. Reports cost one pass over
+ * the requested window, independent of how much history has been recorded.
+ *
+ * <p>Available room nights are based on the current number of rooms of each
+ * type.
+ */
+public class RevenueAnalytics {
+    private final Map<RoomType, Series> series = new EnumMap<>(RoomType.class);
+
+    RevenueAnalytics() {
+        for (RoomType type : RoomType.values()) {
+            series.put(type, new Series());
+        }
+    }
+
+    void roomAdded(RoomType type) {
+        series.get(type).addRoom();
+    }
+
+    void roomRemoved(RoomType type) {
+        series.get(type).removeRoom();
+    }
+
+    void recordBooking(Reservation reservation) {
+        apply(reservation, 1, 0);
+    }
+
+    void recordCancellation(Reservation reservation) {
+        apply(reservation, -1, reservation.isPaid() ? -1 : 0);
+    }
+
+    void recordPayment(Reservation reservation) {
+        apply(reservation, 0, 1);
+    }
+
+    void recordPaymentReverted(Reservation reservation) {
+        apply(reservation, 0, -1);
+    }
+
+    /**
+     * Aggregates the nights {@code [from, to)} into periods of the given
+     * granularity. The first and last periods are clipped to the window.
+     *
+     * @param type a room type, or null for all rooms
+     */
+    public List<RevenuePeriod> getReport(RoomType type, LocalDate from, LocalDate to, Granularity granularity) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("Date window must contain at least one night");
+        }
+        List<RevenuePeriod> periods = new ArrayList<>();
+        LocalDate start = from;
+        while (start.isBefore(to)) {
+            LocalDate next = granularity.nextPeriod(granularity.periodStart(start));
+            LocalDate end = next.isBefore(to) ? next : to;
+            periods.add(getPeriod(type, start, end));
+            start = end;
+        }
+        return periods;
+    }
+
+    /**
+     * Totals for the nights {@code [from, to)}.
+     *
+     * @param type a room type, or null for all rooms
+     */
+    public RevenuePeriod getPeriod(RoomType type, LocalDate from, LocalDate to) {
+        long[] totals = new long[4];
+        if (type == null) {
+            series.values().forEach(s -> s.sum(from.toEpochDay(), to.toEpochDay(), totals));
+        } else {
+            series.get(type).sum(from.toEpochDay(), to.toEpochDay(), totals);
+        }
+        return new RevenuePeriod(type, from, to, totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    /**
+     * Fills {@code dest} with the booked share of rooms of {@code type} on
+     * the nights starting at {@code fromDay}.
+     */
+    void copyOccupancy(RoomType type, long fromDay, double[] dest) {
+        series.get(type).copyOccupancy(fromDay, dest);
+    }
+
+    /**
+     * Copies of the per-night totals of every type that has any.
+     */
+    List<ArchivedNights.TypeNights> nights() {
+        List<ArchivedNights.TypeNights> nights = new ArrayList<>();
+        series.forEach((type, s) -> {
+            ArchivedNights.TypeNights copy = s.copy(type);
+            if (copy != null) {
+                nights.add(copy);
+            }
+        });
+        return nights;
+    }
+
+    /**
+     * Adds per-night totals, as returned by {@link #nights()}, to the ones
+     * already recorded.
+     */
+    void addNights(ArchivedNights.TypeNights nights) {
+        series.get(nights.type()).addAll(nights.originDay(), nights.sold(), nights.revenueCents(), nights.paidCents());
+    }
+
+    // Deltas of +1/-1 add or remove the stay from the sold and paid aggregates
+    private void apply(Reservation reservation, int soldDelta, int paidDelta) {
+        long fromDay = reservation.getCheckInDate().toEpochDay();
+        int nights = (int) ChronoUnit.DAYS.between(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        if (nights <= 0) {
+            return;
+        }
+        long totalCents = Math.round(reservation.getTotalPrice() * 100);
+        series.get(reservation.getRoom().getType()).add(fromDay, nights, totalCents, soldDelta, paidDelta);
+    }
+
+    private static final class Series {
+        private int roomCount;
+        private long originDay;
+        private int[] sold = new int[0];
+        private long[] revenueCents = new long[0];
+        private long[] paidCents = new long[0];
+
+        synchronized void addRoom() {
+            roomCount++;
+        }
+
+        synchronized void removeRoom() {
+            roomCount--;
+        }
+
+        synchronized void add(long fromDay, int nights, long totalCents, int soldDelta, int paidDelta) {
+            ensureRange(fromDay, fromDay + nights);
+            long base = totalCents / nights;
+            long remainder = totalCents % nights;
+            int offset = (int) (fromDay - originDay);
+            for (int n = 0; n < nights; n++) {
+                long nightCents = base + (n < remainder ? 1 : 0);
+                sold[offset + n] += soldDelta;
+                revenueCents[offset + n] += soldDelta * nightCents;
+                paidCents[offset + n] += paidDelta * nightCents;
+            }
+        }
+
+        synchronized void addAll(long fromDay, int[] soldDeltas, long[] revenueDeltas, long[] paidDeltas) {
+            if (soldDeltas.length == 0) {
+                return;
+            }
+            ensureRange(fromDay, fromDay + soldDeltas.length);
+            int offset = (int) (fromDay - originDay);
+            for (int n = 0; n < soldDeltas.length; n++) {
+                sold[offset + n] += soldDeltas[n];
+                revenueCents[offset + n] += revenueDeltas[n];
+                paidCents[offset + n] += paidDeltas[n];
+            }
+        }
+
+        // Null if nothing was ever recorded
+        synchronized ArchivedNights.TypeNights copy(RoomType type) {
+            if (sold.length == 0) {
+                return null;
+            }
+            return new ArchivedNights.TypeNights(type, originDay, sold.clone(), revenueCents.clone(), paidCents.clone());
+        }
+
+        synchronized void copyOccupancy(long fromDay, double[] dest) {
+            for (int n = 0; n < dest.length; n++) {
+                long i = fromDay + n - originDay;
+                int booked = i >= 0 && i < sold.length ? sold[(int) i] : 0;
+                dest[n] = roomCount == 0 ? 0 : (double) booked / roomCount;
+            }
+        }
+
+        // totals: available, sold, revenue, paid
+        synchronized void sum(long fromDay, long toDay, long[] totals) {
+            totals[0] += (long) roomCount * (toDay - fromDay);
+            long from = Math.max(fromDay, originDay);
+            long to = Math.min(toDay, originDay + sold.length);
+            for (long day = from; day < to; day++) {
+                int i = (int) (day - originDay);
+                totals[1] += sold[i];
+                totals[2] += revenueCents[i];
+                totals[3] += paidCents[i];
+            }
+        }
+
+        // Grows geometrically in whichever direction is needed, like an array list
+        private void ensureRange(long fromDay, long toDay) {
+            if (sold.length == 0) {
+                originDay = fromDay;
+                resize(fromDay, Math.max(toDay - fromDay, 64));
+                return;
+            }
+            long end = originDay + sold.length;
+            if (fromDay >= originDay && toDay <= end) {
+                return;
+            }
+            long newStart = fromDay < originDay ? Math.min(fromDay, originDay - sold.length) : originDay;
+            long newEnd = toDay > end ? Math.max(toDay, end + sold.length) : end;
+            resize(newStart, newEnd - newStart);
+        }
+
+        private void resize(long newStart, long length) {
+            int shift = (int) (originDay - newStart);
+            int size = Math.toIntExact(length);
+            int[] newSold = new int[size];
+            long[] newRevenue = new long[size];
+            long[] newPaid = new long[size];
+            System.arraycopy(sold, 0, newSold, shift, sold.length);
+            System.arraycopy(revenueCents, 0, newRevenue, shift, revenueCents.length);
+            System.arraycopy(paidCents, 0, newPaid, shift, paidCents.length);
+            sold = newSold;
+            revenueCents = newRevenue;
+            paidCents = newPaid;
+            originDay = newStart;
+        }
+    }
+}
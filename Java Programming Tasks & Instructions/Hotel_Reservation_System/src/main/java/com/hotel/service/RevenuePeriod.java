@@ -0,0 +1,36 @@
+package com.hotel.service;
+
+import com.hotel.model.RoomType;
+import java.time.LocalDate;
+
+/**
+ * Occupancy and revenue of one room type (or of all rooms when {@code type}
+ * is null) over the nights {@code [start, end)}. Revenue is in cents and
+ * counts every active booking; {@code paidRevenueCents} is the part that has
+ * been paid.
+ */
+public record RevenuePeriod(RoomType type, LocalDate start, LocalDate end, long availableRoomNights,
+                            long soldRoomNights, long revenueCents, long paidRevenueCents) {
+
+    public double occupancyRate() {
+        return availableRoomNights == 0 ? 0 : (double) soldRoomNights / availableRoomNights;
+    }
+
+    /** Average daily rate: revenue per sold room night. */
+    public double adr() {
+        return soldRoomNights == 0 ? 0 : revenueCents / 100.0 / soldRoomNights;
+    }
+
+    /** Revenue per available room night. */
+    public double revPar() {
+        return availableRoomNights == 0 ? 0 : revenueCents / 100.0 / availableRoomNights;
+    }
+
+    public double revenue() {
+        return revenueCents / 100.0;
+    }
+
+    public double paidRevenue() {
+        return paidRevenueCents / 100.0;
+    }
+}
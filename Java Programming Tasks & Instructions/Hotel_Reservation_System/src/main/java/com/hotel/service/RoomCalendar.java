@@ -0,0 +1,153 @@
+package com.hotel.service;
+
+import java.time.LocalDate;
+
+/**
+ * Occupied nights of a single room as a bitset indexed by epoch day. A stay
+ * from check-in to check-out occupies the nights {@code [checkIn, checkOut)},
+ * so a range test touches one 64-bit word per 64 nights.
+ */
+class RoomCalendar {
+    private long originDay;
+    private long[] words = new long[0];
+
+    boolean isFree(LocalDate checkIn, LocalDate checkOut) {
+        return isFree(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    boolean isFree(long fromDay, long toDay) {
+        long from = Math.max(fromDay, originDay);
+        long to = Math.min(toDay, originDay + 64L * words.length);
+        if (from >= to) {
+            return true;
+        }
+        int first = wordIndex(from);
+        int last = wordIndex(to - 1);
+        for (int i = first; i <= last; i++) {
+            if ((words[i] & mask(i, from, to)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void occupy(LocalDate checkIn, LocalDate checkOut) {
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        if (from >= to) {
+            return;
+        }
+        ensureRange(from, to);
+        int first = wordIndex(from);
+        int last = wordIndex(to - 1);
+        for (int i = first; i <= last; i++) {
+            words[i] |= mask(i, from, to);
+        }
+    }
+
+    void release(LocalDate checkIn, LocalDate checkOut) {
+        long from = Math.max(checkIn.toEpochDay(), originDay);
+        long to = Math.min(checkOut.toEpochDay(), originDay + 64L * words.length);
+        if (from >= to) {
+            return;
+        }
+        int first = wordIndex(from);
+        int last = wordIndex(to - 1);
+        for (int i = first; i <= last; i++) {
+            words[i] &= ~mask(i, from, to);
+        }
+    }
+
+    /**
+     * Marks every night set in {@code occupied}, a bitset of the nights from
+     * {@code fromDay} as returned by {@link #occupiedNights()}.
+     */
+    void occupyAll(long fromDay, long[] occupied) {
+        if (occupied.length == 0) {
+            return;
+        }
+        ensureRange(fromDay, fromDay + 64L * occupied.length);
+        for (int i = 0; i < occupied.length; i++) {
+            long offset = fromDay + 64L * i - originDay;
+            int index = (int) (offset >>> 6);
+            int shift = (int) (offset & 63);
+            words[index] |= occupied[i] << shift;
+            if (shift != 0) {
+                words[index + 1] |= occupied[i] >>> (64 - shift);
+            }
+        }
+    }
+
+    long originDay() {
+        return originDay;
+    }
+
+    // Copy of the bitset; bit n is the night originDay() + n
+    long[] occupiedNights() {
+        return words.clone();
+    }
+
+    /**
+     * Writes a free-night bitset for {@code [fromDay, fromDay + nights)} into
+     * {@code dest} starting at word {@code destOffset}; bit {@code n} is set
+     * when night {@code fromDay + n} is free.
+     */
+    void copyFreeNights(long fromDay, int nights, long[] dest, int destOffset) {
+        int wordCount = (nights + 63) >>> 6;
+        for (int w = 0; w < wordCount; w++) {
+            long free = ~occupiedWord(fromDay + 64L * w);
+            int remaining = nights - 64 * w;
+            if (remaining < 64) {
+                free &= (1L << remaining) - 1;
+            }
+            dest[destOffset + w] = free;
+        }
+    }
+
+    // Occupancy of the 64 nights starting at day, regardless of word alignment
+    private long occupiedWord(long day) {
+        long offset = day - originDay;
+        int shift = (int) Math.floorMod(offset, 64L);
+        long index = Math.floorDiv(offset, 64L);
+        long low = wordAt(index) >>> shift;
+        long high = shift == 0 ? 0 : wordAt(index + 1) << (64 - shift);
+        return low | high;
+    }
+
+    private long wordAt(long index) {
+        return index >= 0 && index < words.length ? words[(int) index] : 0L;
+    }
+
+    private int wordIndex(long day) {
+        return (int) ((day - originDay) >>> 6);
+    }
+
+    // Bits of word i that fall inside [from, to)
+    private long mask(int i, long from, long to) {
+        long wordStart = originDay + 64L * i;
+        long low = Math.max(from, wordStart) - wordStart;
+        long high = Math.min(to, wordStart + 64) - wordStart;
+        long upper = high == 64 ? -1L : (1L << high) - 1;
+        return upper & (-1L << low);
+    }
+
+    private void ensureRange(long from, long to) {
+        long start = Math.floorDiv(from, 64) * 64;
+        long end = Math.floorDiv(to - 1, 64) * 64 + 64;
+        if (words.length == 0) {
+            originDay = start;
+            words = new long[(int) ((end - start) >>> 6)];
+            return;
+        }
+        long currentEnd = originDay + 64L * words.length;
+        long newStart = Math.min(start, originDay);
+        long newEnd = Math.max(end, currentEnd);
+        if (newStart == originDay && newEnd == currentEnd) {
+            return;
+        }
+        long[] grown = new long[(int) ((newEnd - newStart) >>> 6)];
+        System.arraycopy(words, 0, grown, (int) ((originDay - newStart) >>> 6), words.length);
+        words = grown;
+        originDay = newStart;
+    }
+}
@@ -0,0 +1,279 @@
+package com.hotel.service;
+
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of search results with a time-to-live. Changes to the
+ * hotel invalidate only the entries whose date window overlaps the changed
+ * stay and whose room type matches. Entries are indexed by room type and
+ * night, so an invalidation touches just the nights of the stay instead of
+ * scanning the cache. There is no cache-wide lock: bookings on different
+ * lock stripes never wait for each other here.
+ *
+ * <p>Callers read {@link #generation()} before computing a result and pass
+ * it to {@link #put}; a result is dropped instead of cached stale if one of
+ * its nights was invalidated in the meantime. Unrelated changes do not
+ * affect it. When full, the cache evicts with the second-chance
+ * approximation of LRU.
+ */
+public class SearchCache {
+    private static final int ALL_TYPES = RoomType.values().length;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // One per room type, plus one for all-type searches
+    private final Bucket[] buckets = new Bucket[ALL_TYPES + 1];
+    private final AtomicLong clock = new AtomicLong();
+    private final Queue<Entry> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private record Key(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+    }
+
+    // Compared by identity, so removing an entry never removes a newer one cached under the same key
+    private static final class Entry {
+        final Key key;
+        final List<Room> rooms;
+        final long expiresAt;
+        volatile boolean referenced;
+
+        Entry(Key key, List<Room> rooms, long expiresAt) {
+            this.key = key;
+            this.rooms = rooms;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Bucket {
+        // Entries whose window covers each night, by epoch day
+        final Map<Long, Set<Entry>> byNight = new ConcurrentHashMap<>();
+        // Clock value of the latest invalidation of each night
+        final Map<Long, Long> changedAt = new ConcurrentHashMap<>();
+        // Clock value of the latest invalidation of the whole bucket
+        final AtomicLong clearedAt = new AtomicLong();
+    }
+
+    /**
+     * Point-in-time counters for sizing the cache.
+     */
+    public record Stats(long hits, long misses, long evictions, long expirations,
+                        long invalidations, int size, int maxEntries) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    public SearchCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * @return the cached rooms, or null on a miss
+     */
+    public List<Room> get(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        Entry entry = entries.get(new Key(type, checkIn, checkOut));
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            if (remove(entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return entry.rooms;
+    }
+
+    /**
+     * Stamp to read before computing a result and pass to {@link #put}.
+     */
+    public long generation() {
+        return clock.get();
+    }
+
+    public void put(RoomType type, LocalDate checkIn, LocalDate checkOut,
+                    List<Room> rooms, long computedAt) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        Bucket bucket = bucketOf(type);
+        if (changedSince(bucket, checkIn, checkOut, computedAt)) {
+            return;
+        }
+        Entry entry = new Entry(new Key(type, checkIn, checkOut), rooms, System.nanoTime() + ttlNanos);
+        // Indexed before it becomes visible, so an invalidation that misses the check below finds it
+        forEachNight(checkIn, checkOut, night -> bucket.byNight.compute(night, (n, set) -> {
+            Set<Entry> indexed = set != null ? set : ConcurrentHashMap.newKeySet();
+            indexed.add(entry);
+            return indexed;
+        }));
+        Entry replaced = entries.put(entry.key, entry);
+        if (replaced != null) {
+            unindex(replaced);
+        }
+        if (changedSince(bucket, checkIn, checkOut, computedAt)) {
+            remove(entry);
+            return;
+        }
+        evictionQueue.add(entry);
+        queued.incrementAndGet();
+        evictIfFull();
+    }
+
+    /**
+     * Drops results for {@code type} (and all-type searches) whose window
+     * overlaps the nights {@code [checkIn, checkOut)}.
+     */
+    public void invalidate(RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        long stamp = clock.incrementAndGet();
+        for (Bucket bucket : new Bucket[] {bucketOf(type), buckets[ALL_TYPES]}) {
+            forEachNight(checkIn, checkOut, night -> {
+                // Stamped before the night's entries are dropped, so a put racing with this sees one or the other
+                bucket.changedAt.merge(night, stamp, Math::max);
+                removeAll(bucket.byNight.remove(night));
+            });
+        }
+    }
+
+    /**
+     * Drops every result that could include a room of {@code type}. Scans
+     * the cache, which is fine for the rare change to the room list.
+     */
+    public void invalidate(RoomType type) {
+        long stamp = clock.incrementAndGet();
+        bucketOf(type).clearedAt.accumulateAndGet(stamp, Math::max);
+        buckets[ALL_TYPES].clearedAt.accumulateAndGet(stamp, Math::max);
+        for (Entry entry : entries.values()) {
+            if ((entry.key.type() == null || entry.key.type() == type) && remove(entry)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(),
+                entries.size(), maxEntries);
+    }
+
+    private Bucket bucketOf(RoomType type) {
+        return buckets[type == null ? ALL_TYPES : type.ordinal()];
+    }
+
+    private static boolean changedSince(Bucket bucket, LocalDate checkIn, LocalDate checkOut, long stamp) {
+        if (bucket.clearedAt.get() > stamp) {
+            return true;
+        }
+        for (long night = checkIn.toEpochDay(); night < checkOut.toEpochDay(); night++) {
+            Long changed = bucket.changedAt.get(night);
+            if (changed != null && changed > stamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeAll(Set<Entry> stale) {
+        if (stale == null) {
+            return;
+        }
+        for (Entry entry : stale) {
+            if (remove(entry)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    // Removes the entry if it is still cached; false if something else removed it first
+    private boolean remove(Entry entry) {
+        if (!entries.remove(entry.key, entry)) {
+            return false;
+        }
+        unindex(entry);
+        return true;
+    }
+
+    private void unindex(Entry entry) {
+        Bucket bucket = bucketOf(entry.key.type());
+        forEachNight(entry.key.checkIn(), entry.key.checkOut(),
+                night -> bucket.byNight.computeIfPresent(night, (n, set) -> {
+                    set.remove(entry);
+                    return set.isEmpty() ? null : set;
+                }));
+    }
+
+    // Second chance: entries read since they were queued go to the back once before they can be evicted
+    private void evictIfFull() {
+        int budget = queued.get() * 2 + 1;
+        while (entries.size() > maxEntries && budget-- > 0) {
+            Entry candidate = evictionQueue.poll();
+            if (candidate == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            if (entries.get(candidate.key) != candidate) {
+                continue;
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+                evictionQueue.add(candidate);
+                queued.incrementAndGet();
+            } else if (remove(candidate)) {
+                evictions.increment();
+            }
+        }
+        // Invalidated and expired entries stay queued until polled; sweep them out before they pile up
+        if (queued.get() > 2 * maxEntries && purging.compareAndSet(false, true)) {
+            try {
+                evictionQueue.removeIf(entry -> {
+                    boolean stale = entries.get(entry.key) != entry;
+                    if (stale) {
+                        queued.decrementAndGet();
+                    }
+                    return stale;
+                });
+            } finally {
+                purging.set(false);
+            }
+        }
+    }
+
+    private static void forEachNight(LocalDate checkIn, LocalDate checkOut, NightAction action) {
+        for (long night = checkIn.toEpochDay(); night < checkOut.toEpochDay(); night++) {
+            action.apply(night);
+        }
+    }
+
+    @FunctionalInterface
+    private interface NightAction {
+        void apply(long night);
+    }
+}
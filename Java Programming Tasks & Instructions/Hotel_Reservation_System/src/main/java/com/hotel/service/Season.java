@@ -0,0 +1,19 @@
+package com.hotel.service;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+
+/**
+ * A yearly recurring price multiplier for the nights from {@code start} to
+ * {@code end}, both inclusive. A season may wrap around the new year.
+ */
+public record Season(String name, MonthDay start, MonthDay end, double factor) {
+
+    public boolean covers(LocalDate night) {
+        MonthDay day = MonthDay.from(night);
+        if (start.isAfter(end)) {
+            return !day.isBefore(start) || !day.isAfter(end);
+        }
+        return !day.isBefore(start) && !day.isAfter(end);
+    }
+}
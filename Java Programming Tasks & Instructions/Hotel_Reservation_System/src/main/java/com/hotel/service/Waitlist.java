@@ -0,0 +1,102 @@
+package com.hotel.service;
+
+import com.hotel.model.RoomType;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Waiting guests indexed by room type and check-in date. An entry can
+ * only overlap a stay if it checks in before the stay ends and at most the
+ * longest waiting stay before it starts, so an overlap query is one range
+ * scan of the check-in index rather than a pass over every entry.
+ */
+class Waitlist {
+    static final Comparator<WaitlistEntry> PRIORITY_ORDER =
+            Comparator.comparingInt(WaitlistEntry::priority).reversed()
+                    .thenComparingLong(WaitlistEntry::sequence);
+
+    private final Map<RoomType, NavigableMap<LocalDate, List<WaitlistEntry>>> byCheckIn = new EnumMap<>(RoomType.class);
+    private final Map<RoomType, Long> longestNights = new EnumMap<>(RoomType.class);
+    private final Map<String, WaitlistEntry> byId = new HashMap<>();
+    private long sequence;
+
+    synchronized WaitlistEntry add(String guestName, String guestEmail, RoomType type,
+                                   LocalDate checkIn, LocalDate checkOut, int priority, boolean autoBook) {
+        long next = ++sequence;
+        WaitlistEntry entry = new WaitlistEntry(String.format("WL-%08X", next), guestName, guestEmail,
+                type, checkIn, checkOut, priority, autoBook, next);
+        index(entry);
+        return entry;
+    }
+
+    /**
+     * Puts back an entry taken by {@link #remove} that could not be served,
+     * keeping its place in the queue.
+     */
+    synchronized void restore(WaitlistEntry entry) {
+        if (!byId.containsKey(entry.entryId())) {
+            index(entry);
+        }
+    }
+
+    synchronized boolean remove(String entryId) {
+        WaitlistEntry entry = byId.remove(entryId);
+        if (entry == null) {
+            return false;
+        }
+        NavigableMap<LocalDate, List<WaitlistEntry>> index = byCheckIn.get(entry.type());
+        List<WaitlistEntry> sameDay = index.get(entry.checkIn());
+        sameDay.remove(entry);
+        if (sameDay.isEmpty()) {
+            index.remove(entry.checkIn());
+        }
+        return true;
+    }
+
+    synchronized WaitlistEntry get(String entryId) {
+        return byId.get(entryId);
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    /**
+     * @return the entries for {@code type} whose stay overlaps the nights
+     *         {@code [from, to)}, highest priority first
+     */
+    synchronized List<WaitlistEntry> overlapping(RoomType type, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, List<WaitlistEntry>> index = byCheckIn.get(type);
+        if (index == null || index.isEmpty()) {
+            return List.of();
+        }
+        LocalDate earliest = from.minusDays(longestNights.get(type));
+        List<WaitlistEntry> found = new ArrayList<>();
+        for (List<WaitlistEntry> sameDay : index.subMap(earliest, false, to, false).values()) {
+            for (WaitlistEntry entry : sameDay) {
+                if (entry.overlaps(from, to)) {
+                    found.add(entry);
+                }
+            }
+        }
+        found.sort(PRIORITY_ORDER);
+        return found;
+    }
+
+    private void index(WaitlistEntry entry) {
+        byId.put(entry.entryId(), entry);
+        byCheckIn.computeIfAbsent(entry.type(), t -> new TreeMap<>())
+                .computeIfAbsent(entry.checkIn(), d -> new ArrayList<>())
+                .add(entry);
+        // Never shrinks; a stale bound only widens the scan
+        longestNights.merge(entry.type(), ChronoUnit.DAYS.between(entry.checkIn(), entry.checkOut()), Math::max);
+    }
+}
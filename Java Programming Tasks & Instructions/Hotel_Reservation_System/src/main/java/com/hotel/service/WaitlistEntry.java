@@ -0,0 +1,19 @@
+package com.hotel.service;
+
+import com.hotel.model.RoomType;
+import java.time.LocalDate;
+
+/**
+ * A guest waiting for a room of {@code type} for the nights
+ * {@code [checkIn, checkOut)}. Higher priorities are served first, then
+ * earlier entries. With {@code autoBook} a freed room is booked for the
+ * guest straight away; otherwise the guest is offered it.
+ */
+public record WaitlistEntry(String entryId, String guestName, String guestEmail, RoomType type,
+                            LocalDate checkIn, LocalDate checkOut, int priority, boolean autoBook,
+                            long sequence) {
+
+    boolean overlaps(LocalDate from, LocalDate to) {
+        return checkIn.isBefore(to) && from.isBefore(checkOut);
+    }
+}
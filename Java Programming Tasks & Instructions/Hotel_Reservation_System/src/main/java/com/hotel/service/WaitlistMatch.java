@@ -0,0 +1,16 @@
+package com.hotel.service;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+
+/**
+ * A waitlist entry served by a cancellation. {@code reservation} is the
+ * booking made for an auto-book entry and null for an offer, which the
+ * guest still has to book like any other stay.
+ */
+public record WaitlistMatch(WaitlistEntry entry, Room room, Reservation reservation) {
+
+    public boolean isBooked() {
+        return reservation != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hotel.storage;
+
+import com.hotel.model.RoomType;
+import java.util.List;
+
+/**
+ * Per-night totals of the active stays in the {@link ReservationArchive}.
+ * Archived reservations never change, so snapshots carry these totals and
+ * startup marks archived nights without reading the archive.
+ */
+public record ArchivedNights(List<RoomNights> rooms, List<TypeNights> types) {
+    public static final ArchivedNights EMPTY = new ArchivedNights(List.of(), List.of());
+
+    /**
+     * Occupied nights of one room; bit {@code n} of {@code occupied} is the
+     * night {@code originDay + n}.
+     */
+    public record RoomNights(int roomNumber, long originDay, long[] occupied) {
+    }
+
+    /**
+     * Rooms sold, revenue and paid revenue of one room type, per night from
+     * {@code originDay}.
+     */
+    public record TypeNights(RoomType type, long originDay, int[] sold, long[] revenueCents, long[] paidCents) {
+    }
+}
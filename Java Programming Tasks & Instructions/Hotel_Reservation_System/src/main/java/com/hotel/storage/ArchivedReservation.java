@@ -0,0 +1,11 @@
+package com.hotel.storage;
+
+import java.time.LocalDate;
+
+/**
+ * A reservation as stored in the {@link ReservationArchive}.
+ */
+public record ArchivedReservation(String reservationId, String guestName, String guestEmail, int roomNumber,
+                                  LocalDate checkIn, LocalDate checkOut, double totalPrice,
+                                  boolean paid, boolean cancelled) {
+}
@@ -0,0 +1,585 @@
+package com.hotel.storage;
+
+import com.hotel.metrics.Counter;
+import com.hotel.metrics.HotelMetrics;
+import com.hotel.metrics.Operation;
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Append-only persistence for the hotel. Every mutation is one record
+ * appended to the current journal segment; once the journal holds as many
+ * records as the last snapshot (and at least the compaction threshold) the
+ * segment is rotated and a snapshot of the full state is written in the
+ * background, after which the covered segments are deleted. Tying the
+ * trigger to the snapshot size keeps compaction cost amortized O(1) per write.
+ *
+ * <p>Appends use group commit: writers queue their records and one of them
+ * writes everything queued as a single checksummed frame and forces it to
+ * disk, so a burst of bookings shares one fsync. An append returns only
+ * once its frame is durable. Snapshots are written to a temporary file,
+ * forced and renamed into place; the last two generations are kept, so a
+ * damaged snapshot falls back to the one before it and the journal
+ * segments written since.
+ */
+public class HotelStore implements Closeable {
+    private static final String LEGACY_SNAPSHOT_FILE = "hotel.snapshot";
+    private static final String SNAPSHOT_PREFIX = "hotel-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    /**
+     * Longest string, in encoded bytes, that journal records, snapshots and
+     * the archive can hold.
+     */
+    public static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Path directory;
+    private final Supplier<State> stateSource;
+    private final int compactionThreshold;
+    private final ExecutorService compactor;
+    // Lock order: commitLock, then the store's monitor
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private FileChannel segment;
+    private long segmentNumber;
+    private long recordsSinceSnapshot;
+    private long snapshotRecords;
+    private long durableSequence;
+    // Written with commitLock held; also read by the compactor
+    private volatile IOException failure;
+    private Future<?> pendingCompaction;
+    private volatile Durability durability = Durability.FSYNC;
+    private volatile HotelMetrics metrics = new HotelMetrics();
+
+    // Guarded by the store's monitor
+    private List<byte[]> pending = new ArrayList<>();
+    private int pendingRecords;
+    private long appendedSequence;
+
+    /**
+     * How far an append goes before it returns.
+     */
+    public enum Durability {
+        /** Forced to the storage device; survives power loss. */
+        FSYNC,
+        /** Handed to the operating system; survives a process crash only. For bulk loads. */
+        BUFFERED
+    }
+
+    /**
+     * Callbacks used to rebuild in-memory state from the snapshot and journal.
+     */
+    public interface Replay {
+        void roomAdded(int roomNumber, RoomType type, double pricePerNight);
+
+        void reservationCreated(String reservationId, String guestName, String guestEmail,
+                                int roomNumber, LocalDate checkIn, LocalDate checkOut, double totalPrice);
+
+        void reservationCancelled(String reservationId);
+
+        void reservationPaid(String reservationId);
+
+        /** The reservation has moved to the {@link ReservationArchive}. */
+        void reservationArchived(String reservationId);
+
+        /**
+         * Totals of the reservations archived before the snapshot. Not
+         * called for snapshots written before they carried these totals.
+         */
+        void archivedNights(ArchivedNights nights);
+    }
+
+    /**
+     * Point-in-time copy of the hotel written out by a snapshot.
+     *
+     * @param archived totals of exactly the reservations archived so far,
+     *                 none of which may also be in {@code reservations}
+     */
+    public record State(List<Room> rooms, List<Reservation> reservations, ArchivedNights archived) {
+    }
+
+    private record SnapshotFile(Path path, long coveredSegment) {
+    }
+
+    public HotelStore(Path directory, Supplier<State> stateSource) {
+        this(directory, stateSource, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public HotelStore(Path directory, Supplier<State> stateSource, int compactionThreshold) {
+        this.directory = directory;
+        this.stateSource = stateSource;
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "hotel-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Replays the newest readable snapshot and every journal segment written
+     * after it, then opens a fresh segment for new records. A snapshot that
+     * fails its checksum is skipped in favour of the previous generation.
+     *
+     * @throws IOException if snapshots exist but none of them can be read
+     */
+    public void load(Replay replay) throws IOException {
+        if (!directory.toString().isEmpty()) {
+            Files.createDirectories(directory);
+        }
+        deleteTempFiles();
+
+        long covered = -1;
+        List<SnapshotFile> snapshots = listSnapshots();
+        boolean loaded = snapshots.isEmpty();
+        for (SnapshotFile snapshot : snapshots) {
+            try (MappedSnapshot mapped = new MappedSnapshot(snapshot.path())) {
+                mapped.verify();
+                covered = mapped.getCoveredSegment();
+                snapshotRecords = (long) mapped.getRoomCount() + mapped.getReservationCount();
+                mapped.replay(replay);
+                loaded = true;
+                break;
+            } catch (IOException e) {
+                System.out.println("Skipping damaged snapshot " + snapshot.path().getFileName()
+                        + ": " + e.getMessage());
+            }
+        }
+        if (!loaded) {
+            throw new IOException("No readable hotel snapshot in " + directory.toAbsolutePath());
+        }
+
+        long last = covered;
+        for (long number : listSegments()) {
+            // Segments covered by this snapshot stay until pruning, for the older generation
+            if (number > covered) {
+                recordsSinceSnapshot += replaySegment(segmentPath(number), replay);
+                last = number;
+            }
+        }
+
+        segmentNumber = last + 1;
+        segment = openSegment(segmentNumber);
+    }
+
+    /**
+     * Whether {@code value} fits in a stored string field. Check before
+     * changing state: a record that cannot be encoded is never journaled.
+     */
+    public static boolean isStorable(String value) {
+        // Every char encodes to at most 3 bytes
+        return value.length() <= MAX_STRING_BYTES / 3 || JournalCodec.encodedLength(value) <= MAX_STRING_BYTES;
+    }
+
+    /**
+     * Sends journal write volume and timings to {@code metrics}.
+     */
+    public void setMetrics(HotelMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public void appendRoom(Room room) throws IOException {
+        append(JournalCodec.roomAdded(room));
+    }
+
+    public void appendReservationCreated(Reservation reservation) throws IOException {
+        append(JournalCodec.reservationCreated(reservation));
+    }
+
+    /**
+     * Appends a group of bookings with one write.
+     */
+    public void appendReservationsCreated(List<Reservation> reservations) throws IOException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(reservations.size() * 96);
+        for (Reservation reservation : reservations) {
+            batch.writeBytes(JournalCodec.reservationCreated(reservation));
+        }
+        append(batch.toByteArray(), reservations.size());
+    }
+
+    /**
+     * Appends imported reservations with one write, followed by the payment
+     * and cancellation records that restore their state on replay.
+     */
+    public void appendReservationsImported(List<Reservation> reservations) throws IOException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(reservations.size() * 112);
+        int count = 0;
+        for (Reservation reservation : reservations) {
+            batch.writeBytes(JournalCodec.reservationCreated(reservation));
+            count++;
+            if (reservation.isPaid()) {
+                batch.writeBytes(JournalCodec.reservationPaid(reservation.getReservationId()));
+                count++;
+            }
+            if (reservation.isCancelled()) {
+                batch.writeBytes(JournalCodec.reservationCancelled(reservation.getReservationId()));
+                count++;
+            }
+        }
+        append(batch.toByteArray(), count);
+    }
+
+    public void appendReservationCancelled(String reservationId) throws IOException {
+        append(JournalCodec.reservationCancelled(reservationId));
+    }
+
+    public void appendReservationPaid(String reservationId) throws IOException {
+        append(JournalCodec.reservationPaid(reservationId));
+    }
+
+    /**
+     * Appends a batch of payments with one write.
+     */
+    public void appendReservationsPaid(List<String> reservationIds) throws IOException {
+        if (reservationIds.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(reservationIds.size() * 16);
+        for (String reservationId : reservationIds) {
+            batch.writeBytes(JournalCodec.reservationPaid(reservationId));
+        }
+        append(batch.toByteArray(), reservationIds.size());
+    }
+
+    /**
+     * Records with one write that reservations have moved to the archive.
+     */
+    public void appendReservationsArchived(List<String> reservationIds) throws IOException {
+        if (reservationIds.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(reservationIds.size() * 16);
+        for (String reservationId : reservationIds) {
+            batch.writeBytes(JournalCodec.reservationArchived(reservationId));
+        }
+        append(batch.toByteArray(), reservationIds.size());
+    }
+
+    /**
+     * Rotates the journal and writes a snapshot of the current state in the
+     * background. Covered segments are removed once newer snapshots are in
+     * place. If the snapshot cannot be written, the future fails with the
+     * {@link IOException}; the rotated segments stay until a later snapshot
+     * covers them.
+     */
+    public Future<?> compact() throws IOException {
+        commitLock.lock();
+        try {
+            commitPending();
+            return rotate();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitLock.lock();
+        try {
+            if (segment != null) {
+                if (failure == null) {
+                    commitPending();
+                }
+                boolean empty = segment.size() <= JournalCodec.SEGMENT_HEADER_SIZE;
+                segment.close();
+                if (empty) {
+                    Files.deleteIfExists(segmentPath(segmentNumber));
+                }
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        append(record, 1);
+    }
+
+    private void append(byte[] records, int count) throws IOException {
+        long start = System.nanoTime();
+        long sequence;
+        synchronized (this) {
+            pending.add(records);
+            pendingRecords += count;
+            sequence = ++appendedSequence;
+        }
+        awaitDurable(sequence);
+        HotelMetrics metrics = this.metrics;
+        metrics.recordSince(Operation.JOURNAL_APPEND, start);
+        metrics.add(Counter.JOURNAL_RECORDS, count);
+        metrics.add(Counter.JOURNAL_BYTES, records.length);
+    }
+
+    /**
+     * Returns once the append numbered {@code sequence} is durable. The
+     * first waiter to get the commit lock writes everything queued so far,
+     * including the records of the writers queued behind it.
+     */
+    private void awaitDurable(long sequence) throws IOException {
+        commitLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            commitPending();
+            if (recordsSinceSnapshot >= Math.max(compactionThreshold, snapshotRecords)
+                    && (pendingCompaction == null || pendingCompaction.isDone())) {
+                rotate();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Called with commitLock held
+    private void commitPending() throws IOException {
+        if (failure != null) {
+            // After a failed write or fsync the state of the segment is unknown
+            throw new IOException("Hotel journal is unavailable after an earlier failure", failure);
+        }
+        List<byte[]> batch;
+        int count;
+        long sequence;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            count = pendingRecords;
+            sequence = appendedSequence;
+            pending = new ArrayList<>();
+            pendingRecords = 0;
+        }
+
+        try {
+            ByteBuffer[] frame = JournalCodec.frame(batch);
+            while (frame[frame.length - 1].hasRemaining()) {
+                segment.write(frame);
+            }
+            if (durability == Durability.FSYNC) {
+                force(segment);
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        durableSequence = sequence;
+        recordsSinceSnapshot += count;
+    }
+
+    // Called with commitLock held and nothing pending
+    private Future<?> rotate() throws IOException {
+        State state = stateSource.get();
+        long covered = segmentNumber;
+        force(segment);
+        segment.close();
+        segmentNumber++;
+        segment = openSegment(segmentNumber);
+        recordsSinceSnapshot = 0;
+        snapshotRecords = (long) state.rooms().size() + state.reservations().size();
+        pendingCompaction = compactor.submit(() -> {
+            try {
+                if (failure != null) {
+                    // The state may hold changes whose appends failed and are being taken back
+                    throw new IOException("Hotel journal failed before the snapshot was written", failure);
+                }
+                writeSnapshot(state, covered);
+                return null;
+            } catch (IOException e) {
+                // Reported here too, since nobody waits on compactions the journal triggers
+                metrics.increment(Counter.PERSISTENCE_ERRORS);
+                System.out.println("Error compacting hotel data: " + e.getMessage());
+                throw e;
+            }
+        });
+        return pendingCompaction;
+    }
+
+    private void force(FileChannel channel) throws IOException {
+        long start = System.nanoTime();
+        channel.force(false);
+        HotelMetrics metrics = this.metrics;
+        metrics.increment(Counter.FSYNCS);
+        metrics.add(Counter.FSYNC_NANOS, System.nanoTime() - start);
+    }
+
+    private void writeSnapshot(State state, long coveredSegment) throws IOException {
+        Path snapshot = snapshotPath(coveredSegment);
+        Path temp = directory.resolve(snapshot.getFileName() + TEMP_SUFFIX);
+        SnapshotFormat.write(temp, state, coveredSegment);
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        // Older generations go first, then the segments no kept generation needs
+        List<SnapshotFile> snapshots = listSnapshots();
+        long oldestKept = coveredSegment;
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (i < SNAPSHOTS_KEPT) {
+                oldestKept = Math.min(oldestKept, snapshots.get(i).coveredSegment());
+            } else {
+                Files.deleteIfExists(snapshots.get(i).path());
+            }
+        }
+        for (long number : listSegments()) {
+            if (number <= oldestKept) {
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+    }
+
+    private int replaySegment(Path path, Replay replay) throws IOException {
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.mark(JournalCodec.SEGMENT_HEADER_SIZE);
+            byte[] header = in.readNBytes(JournalCodec.SEGMENT_HEADER_SIZE);
+            if (header.length == JournalCodec.SEGMENT_HEADER_SIZE
+                    && ByteBuffer.wrap(header).getInt() == JournalCodec.SEGMENT_MAGIC) {
+                int frameRecords;
+                while ((frameRecords = JournalCodec.readFrame(in, replay)) >= 0) {
+                    records += frameRecords;
+                }
+            } else {
+                // Written before checksummed frames
+                in.reset();
+                while (JournalCodec.readRecord(in, replay)) {
+                    records++;
+                }
+            }
+        } catch (EOFException e) {
+            // A crash mid-append leaves a partial record at the tail; everything before it is intact
+            System.out.println("Ignoring truncated record at the end of " + path.getFileName());
+        } catch (IOException e) {
+            // Nothing after a damaged frame was acknowledged as durable
+            System.out.println("Ignoring damaged journal tail of " + path.getFileName() + ": " + e.getMessage());
+        }
+        return records;
+    }
+
+    /**
+     * Snapshot generations, newest first. A snapshot from before
+     * generations were kept counts as the oldest.
+     */
+    private List<SnapshotFile> listSnapshots() throws IOException {
+        List<SnapshotFile> snapshots = new ArrayList<>();
+        for (long number : listNumbered(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            snapshots.add(new SnapshotFile(snapshotPath(number), number));
+        }
+        snapshots.sort(Comparator.comparingLong(SnapshotFile::coveredSegment).reversed());
+        Path legacy = directory.resolve(LEGACY_SNAPSHOT_FILE);
+        if (Files.exists(legacy)) {
+            snapshots.add(new SnapshotFile(legacy, -1));
+        }
+        return snapshots;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        return listNumbered(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    private List<Long> listNumbered(String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                directory.toAbsolutePath(), prefix + "*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    // Left behind by a snapshot write that was interrupted before its rename
+    private void deleteTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                directory.toAbsolutePath(), SNAPSHOT_PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(directory.resolve(LEGACY_SNAPSHOT_FILE + TEMP_SUFFIX));
+    }
+
+    private Path snapshotPath(long coveredSegment) {
+        return directory.resolve(String.format("%s%08d%s", SNAPSHOT_PREFIX, coveredSegment, SNAPSHOT_SUFFIX));
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            ByteBuffer header = JournalCodec.segmentHeader();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            force(channel);
+            syncDirectory();
+        }
+        return channel;
+    }
+
+    /**
+     * Makes a new or renamed file's directory entry durable. Not every
+     * platform lets a directory be opened, so failures are ignored.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory.toAbsolutePath(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.hotel.storage;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Encodes hotel mutations as compact binary journal records.
+ *
+ * <p>Segments written since version 2 start with an 8-byte header and hold
+ * records in checksummed frames, one frame per group commit:
+ *
+ * <pre>
+ * header   int magic "HTJ2", int version
+ * frame    int payload length, int CRC32C of the payload, payload (one or more records)
+ * </pre>
+ *
+ * Older segments have no header and hold bare records.
+ */
+final class JournalCodec {
+    static final byte ROOM_ADDED = 1;
+    static final byte RESERVATION_CREATED = 2;
+    static final byte RESERVATION_CANCELLED = 3;
+    static final byte RESERVATION_PAID = 4;
+    static final byte RESERVATION_ARCHIVED = 5;
+
+    static final int SEGMENT_MAGIC = 0x48544A32;
+    static final int SEGMENT_VERSION = 2;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private JournalCodec() {
+    }
+
+    static byte[] roomAdded(Room room) {
+        return encode(out -> {
+            out.writeByte(ROOM_ADDED);
+            writeRoom(out, room);
+        });
+    }
+
+    static byte[] reservationCreated(Reservation reservation) {
+        return encode(out -> {
+            out.writeByte(RESERVATION_CREATED);
+            writeReservation(out, reservation);
+        });
+    }
+
+    static byte[] reservationCancelled(String reservationId) {
+        return encode(out -> {
+            out.writeByte(RESERVATION_CANCELLED);
+            out.writeUTF(reservationId);
+        });
+    }
+
+    static byte[] reservationPaid(String reservationId) {
+        return encode(out -> {
+            out.writeByte(RESERVATION_PAID);
+            out.writeUTF(reservationId);
+        });
+    }
+
+    static byte[] reservationArchived(String reservationId) {
+        return encode(out -> {
+            out.writeByte(RESERVATION_ARCHIVED);
+            out.writeUTF(reservationId);
+        });
+    }
+
+    static ByteBuffer segmentHeader() {
+        return ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(SEGMENT_MAGIC).putInt(SEGMENT_VERSION).flip();
+    }
+
+    /**
+     * Builds the buffers for one frame holding {@code payloads} back to
+     * back, ready for a single gathering write.
+     */
+    static ByteBuffer[] frame(List<byte[]> payloads) {
+        ByteBuffer[] buffers = new ByteBuffer[payloads.size() + 1];
+        CRC32C crc = new CRC32C();
+        int length = 0;
+        for (int i = 0; i < payloads.size(); i++) {
+            byte[] payload = payloads.get(i);
+            crc.update(payload);
+            length += payload.length;
+            buffers[i + 1] = ByteBuffer.wrap(payload);
+        }
+        buffers[0] = ByteBuffer.allocate(FRAME_HEADER_SIZE).putInt(length).putInt((int) crc.getValue()).flip();
+        return buffers;
+    }
+
+    /**
+     * Reads the next frame and applies its records to {@code replay}.
+     *
+     * @return the number of records applied, or -1 when the stream ends
+     *         cleanly on a frame boundary
+     * @throws EOFException when the stream ends in the middle of a frame
+     * @throws IOException when the frame fails its checksum
+     */
+    static int readFrame(DataInputStream in, HotelStore.Replay replay) throws IOException {
+        byte[] header = in.readNBytes(FRAME_HEADER_SIZE);
+        if (header.length == 0) {
+            return -1;
+        }
+        if (header.length < FRAME_HEADER_SIZE) {
+            throw new EOFException();
+        }
+        int length = ByteBuffer.wrap(header).getInt();
+        int checksum = ByteBuffer.wrap(header).getInt(4);
+        if (length < 0) {
+            throw new IOException("Invalid journal frame length: " + length);
+        }
+        byte[] payload = in.readNBytes(length);
+        if (payload.length < length) {
+            throw new EOFException();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Journal frame checksum mismatch");
+        }
+
+        int records = 0;
+        DataInputStream body = new DataInputStream(new ByteArrayInputStream(payload));
+        while (readRecord(body, replay)) {
+            records++;
+        }
+        return records;
+    }
+
+    private static void writeRoom(DataOutputStream out, Room room) throws IOException {
+        out.writeInt(room.getRoomNumber());
+        out.writeByte(room.getType().ordinal());
+        out.writeDouble(room.getPricePerNight());
+    }
+
+    private static void writeReservation(DataOutputStream out, Reservation reservation) throws IOException {
+        out.writeUTF(reservation.getReservationId());
+        out.writeUTF(reservation.getGuestName());
+        out.writeUTF(reservation.getGuestEmail());
+        out.writeInt(reservation.getRoom().getRoomNumber());
+        out.writeLong(reservation.getCheckInDate().toEpochDay());
+        out.writeLong(reservation.getCheckOutDate().toEpochDay());
+        out.writeDouble(reservation.getTotalPrice());
+    }
+
+    /**
+     * Reads the next record and applies it to {@code replay}.
+     *
+     * @return false when the stream ends cleanly on a record boundary
+     * @throws EOFException when the stream ends in the middle of a record
+     */
+    static boolean readRecord(DataInputStream in, HotelStore.Replay replay) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return false;
+        }
+        switch (type) {
+            case ROOM_ADDED -> replay.roomAdded(
+                    in.readInt(), RoomType.values()[in.readByte()], in.readDouble());
+            case RESERVATION_CREATED -> replay.reservationCreated(
+                    in.readUTF(), in.readUTF(), in.readUTF(), in.readInt(),
+                    LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()),
+                    in.readDouble());
+            case RESERVATION_CANCELLED -> replay.reservationCancelled(in.readUTF());
+            case RESERVATION_PAID -> replay.reservationPaid(in.readUTF());
+            case RESERVATION_ARCHIVED -> replay.reservationArchived(in.readUTF());
+            default -> throw new IOException("Unknown journal record type: " + type);
+        }
+        return true;
+    }
+
+    private static byte[] encode(RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Only writeUTF can throw here, for strings HotelStore.isStorable rejects
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Length of {@code value} in the modified UTF-8 written by
+     * {@link DataOutputStream#writeUTF}, never less than its plain UTF-8 length.
+     */
+    static long encodedLength(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,250 @@
+package com.hotel.storage;
+
+import static com.hotel.storage.SnapshotFormat.*;
+
+import com.hotel.model.RoomType;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view over a snapshot file mapped with {@link FileChannel#map}.
+ * Records are decoded straight from the mapping as the snapshot is
+ * replayed, with no intermediate copy of the file.
+ */
+public class MappedSnapshot implements Closeable {
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer header;
+    private final short version;
+    private final long coveredSegment;
+    private final int roomCount;
+    private final int reservationCount;
+    private final ByteBuffer rooms;
+    private final ByteBuffer reservations;
+    private final ByteBuffer strings;
+    // Null before version 3
+    private final ByteBuffer archived;
+    private final long length;
+
+    public MappedSnapshot(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Truncated hotel snapshot: " + path);
+            }
+            this.header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ORDER);
+            if (header.getInt(H_MAGIC) != MAGIC) {
+                throw new IOException("Not a hotel snapshot: " + path);
+            }
+            this.version = header.getShort(H_VERSION);
+            if (version != VERSION && version != NO_ARCHIVED_VERSION && version != UNCHECKED_VERSION) {
+                throw new IOException("Unsupported hotel snapshot version " + version + ": " + path);
+            }
+            long stringsEnd = header.getLong(H_STRINGS_OFFSET) + header.getLong(H_STRINGS_LENGTH);
+            if (stringsEnd > channel.size()) {
+                throw new IOException("Truncated hotel snapshot: " + path);
+            }
+            this.coveredSegment = header.getLong(H_COVERED_SEGMENT);
+            this.roomCount = header.getInt(H_ROOM_COUNT);
+            this.reservationCount = header.getInt(H_RESERVATION_COUNT);
+            this.rooms = map(header.getLong(H_ROOMS_OFFSET), (long) roomCount * ROOM_RECORD_SIZE);
+            this.reservations = map(header.getLong(H_RESERVATIONS_OFFSET),
+                    (long) reservationCount * RESERVATION_RECORD_SIZE);
+            this.strings = map(header.getLong(H_STRINGS_OFFSET), header.getLong(H_STRINGS_LENGTH));
+            if (version >= VERSION) {
+                if (stringsEnd + 8 > channel.size()) {
+                    throw new IOException("Truncated hotel snapshot: " + path);
+                }
+                long archivedLength = map(stringsEnd, 8).getLong(0);
+                if (archivedLength < 0 || stringsEnd + 8 + archivedLength > channel.size()) {
+                    throw new IOException("Truncated hotel snapshot: " + path);
+                }
+                this.archived = map(stringsEnd + 8, archivedLength);
+                this.length = stringsEnd + 8 + archivedLength;
+            } else {
+                this.archived = null;
+                this.length = stringsEnd;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the snapshot against its stored checksum. Snapshots written
+     * before checksums were introduced always pass.
+     *
+     * @throws IOException if the contents do not match the checksum
+     */
+    public void verify() throws IOException {
+        if (version == UNCHECKED_VERSION) {
+            return;
+        }
+        if (checksum(channel, header, length) != header.getInt(H_CHECKSUM)) {
+            throw new IOException("Checksum mismatch in hotel snapshot");
+        }
+    }
+
+    public long getCoveredSegment() { return coveredSegment; }
+    public int getRoomCount() { return roomCount; }
+    public int getReservationCount() { return reservationCount; }
+
+    // Room records
+    private int roomNumber(int index) {
+        return rooms.getInt(index * ROOM_RECORD_SIZE + R_NUMBER);
+    }
+
+    private RoomType roomType(int index) {
+        return ROOM_TYPES[rooms.getInt(index * ROOM_RECORD_SIZE + R_TYPE)];
+    }
+
+    private double roomPricePerNight(int index) {
+        return fromCents(rooms.getLong(index * ROOM_RECORD_SIZE + R_PRICE_CENTS));
+    }
+
+    // Reservation records
+    private String reservationId(int index) {
+        return string(reservationInt(index, V_ID));
+    }
+
+    private String guestName(int index) {
+        return string(reservationInt(index, V_GUEST_NAME));
+    }
+
+    private String guestEmail(int index) {
+        return string(reservationInt(index, V_GUEST_EMAIL));
+    }
+
+    private int reservationRoomNumber(int index) {
+        return reservationInt(index, V_ROOM_NUMBER);
+    }
+
+    private LocalDate checkIn(int index) {
+        return LocalDate.ofEpochDay(reservationInt(index, V_CHECK_IN));
+    }
+
+    private LocalDate checkOut(int index) {
+        return LocalDate.ofEpochDay(reservationInt(index, V_CHECK_OUT));
+    }
+
+    private double totalPrice(int index) {
+        return fromCents(reservations.getLong(index * RESERVATION_RECORD_SIZE + V_TOTAL_CENTS));
+    }
+
+    private boolean isPaid(int index) {
+        return (reservationInt(index, V_FLAGS) & FLAG_PAID) != 0;
+    }
+
+    private boolean isCancelled(int index) {
+        return (reservationInt(index, V_FLAGS) & FLAG_CANCELLED) != 0;
+    }
+
+    /**
+     * Feeds every record through {@code replay} in journal order: rooms
+     * first, then each reservation followed by its payment and cancellation,
+     * then the archived totals. Snapshots from before version 3 have no
+     * archived totals and skip that last call.
+     *
+     * @throws IOException if the archived totals are malformed; nothing has
+     *                     been replayed then
+     */
+    public void replay(HotelStore.Replay replay) throws IOException {
+        ArchivedNights archivedNights = archived == null ? null : readArchived();
+        for (int i = 0; i < roomCount; i++) {
+            replay.roomAdded(roomNumber(i), roomType(i), roomPricePerNight(i));
+        }
+        for (int i = 0; i < reservationCount; i++) {
+            String id = reservationId(i);
+            replay.reservationCreated(id, guestName(i), guestEmail(i), reservationRoomNumber(i),
+                    checkIn(i), checkOut(i), totalPrice(i));
+            if (isPaid(i)) {
+                replay.reservationPaid(id);
+            }
+            if (isCancelled(i)) {
+                replay.reservationCancelled(id);
+            }
+        }
+        if (archivedNights != null) {
+            replay.archivedNights(archivedNights);
+        }
+    }
+
+    private ArchivedNights readArchived() throws IOException {
+        ByteBuffer in = archived.duplicate().order(ORDER);
+        try {
+            int roomCount = in.getInt();
+            List<ArchivedNights.RoomNights> rooms = new ArrayList<>(Math.min(roomCount, in.remaining() / 16));
+            for (int i = 0; i < roomCount; i++) {
+                int roomNumber = in.getInt();
+                long originDay = in.getLong();
+                long[] occupied = new long[checkedCount(in.getInt(), in, 8)];
+                in.asLongBuffer().get(occupied);
+                in.position(in.position() + 8 * occupied.length);
+                rooms.add(new ArchivedNights.RoomNights(roomNumber, originDay, occupied));
+            }
+            int typeCount = in.getInt();
+            List<ArchivedNights.TypeNights> types = new ArrayList<>(Math.min(typeCount, ROOM_TYPES.length));
+            for (int i = 0; i < typeCount; i++) {
+                RoomType type = ROOM_TYPES[in.getInt()];
+                long originDay = in.getLong();
+                int nights = checkedCount(in.getInt(), in, ARCHIVED_NIGHT_SIZE);
+                int[] sold = new int[nights];
+                long[] revenueCents = new long[nights];
+                long[] paidCents = new long[nights];
+                for (int n = 0; n < nights; n++) {
+                    sold[n] = in.getInt();
+                    revenueCents[n] = in.getLong();
+                    paidCents[n] = in.getLong();
+                }
+                types.add(new ArchivedNights.TypeNights(type, originDay, sold, revenueCents, paidCents));
+            }
+            return new ArchivedNights(List.copyOf(rooms), List.copyOf(types));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Malformed archived totals in hotel snapshot", e);
+        }
+    }
+
+    // A count read from the file, checked against the bytes left before anything is allocated for it
+    private static int checkedCount(int count, ByteBuffer in, int entrySize) throws IOException {
+        if (count < 0 || (long) count * entrySize > in.remaining()) {
+            throw new IOException("Malformed archived totals in hotel snapshot");
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int reservationInt(int index, int field) {
+        return reservations.getInt(index * RESERVATION_RECORD_SIZE + field);
+    }
+
+    private String string(int offset) {
+        int length = Short.toUnsignedInt(strings.getShort(offset));
+        byte[] bytes = new byte[length];
+        strings.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer map(long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section exceeds 2 GB");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return buffer.order(ORDER);
+    }
+}
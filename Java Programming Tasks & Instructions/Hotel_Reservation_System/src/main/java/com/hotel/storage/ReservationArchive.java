@@ -0,0 +1,336 @@
+package com.hotel.storage;
+
+import com.hotel.metrics.Counter;
+import com.hotel.metrics.HotelMetrics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only file of reservations that have left the live working set.
+ * Records are written in deflate-compressed blocks of up to
+ * {@value #BLOCK_RECORDS}. Each block header carries the block's check-in
+ * and check-out range and a Bloom filter of its ids; the headers stay in
+ * memory, so a lookup only decompresses blocks that can contain the answer.
+ *
+ * <pre>
+ * block header   int magic, int count, int rawLength, int compressedLength,
+ *                long minCheckIn, long maxCheckOut (epoch days),
+ *                int bloomWords, int crc32 of the payload, long[bloomWords] bloom
+ * payload        deflated records: UTF id, name, email, int room,
+ *                int checkIn, int checkOut, long totalCents, byte flags
+ * </pre>
+ */
+public class ReservationArchive implements Closeable {
+    public static final int BLOCK_RECORDS = 4096;
+
+    private static final int BLOCK_MAGIC = 0x48544152; // "HTAR"
+    private static final int HEADER_SIZE = 40;
+    private static final int BLOOM_BITS_PER_RECORD = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final byte FLAG_PAID = 1;
+    private static final byte FLAG_CANCELLED = 2;
+
+    private final Path path;
+    private FileChannel channel;
+    private volatile List<Block> blocks = List.of();
+    private long end;
+    private long recordCount;
+    private HotelMetrics metrics = new HotelMetrics();
+
+    private record Block(long offset, int count, int rawLength, int compressedLength,
+                         long minCheckIn, long maxCheckOut, int crc, long[] bloom) {
+        long payloadOffset() {
+            return offset + HEADER_SIZE + 8L * bloom.length;
+        }
+
+        boolean overlaps(long fromDay, long toDay) {
+            return minCheckIn < toDay && fromDay < maxCheckOut;
+        }
+    }
+
+    /**
+     * Opens the archive at {@code path}, reading every block header. A block
+     * cut short by a crash is dropped. The file is created on the first append.
+     */
+    public ReservationArchive(Path path) throws IOException {
+        this.path = path;
+        if (!Files.exists(path)) {
+            return;
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        List<Block> loaded = new ArrayList<>();
+        long size = channel.size();
+        long offset = 0;
+        while (offset < size) {
+            Block block = readHeader(offset, size);
+            if (block == null) {
+                System.out.println("Ignoring truncated block at the end of " + path.getFileName());
+                channel.truncate(offset);
+                break;
+            }
+            loaded.add(block);
+            recordCount += block.count();
+            offset = block.payloadOffset() + block.compressedLength();
+        }
+        end = offset;
+        blocks = List.copyOf(loaded);
+    }
+
+    /**
+     * Sends archive write volume and fsync timings to {@code metrics}.
+     */
+    public synchronized void setMetrics(HotelMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    /**
+     * Appends {@code reservations} in blocks and forces them to disk, so a
+     * caller may drop them from the live set once this returns.
+     */
+    public synchronized void append(List<ArchivedReservation> reservations) throws IOException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        List<Block> grown = new ArrayList<>(blocks);
+        for (int from = 0; from < reservations.size(); from += BLOCK_RECORDS) {
+            List<ArchivedReservation> chunk =
+                    reservations.subList(from, Math.min(from + BLOCK_RECORDS, reservations.size()));
+            Block block = writeBlock(chunk);
+            grown.add(block);
+            recordCount += block.count();
+        }
+        long syncStart = System.nanoTime();
+        channel.force(false);
+        metrics.increment(Counter.FSYNCS);
+        metrics.add(Counter.FSYNC_NANOS, System.nanoTime() - syncStart);
+        blocks = List.copyOf(grown);
+    }
+
+    public Optional<ArchivedReservation> find(String reservationId) throws IOException {
+        for (Block block : blocks) {
+            if (!mightContain(block.bloom(), reservationId)) {
+                continue;
+            }
+            for (ArchivedReservation reservation : readBlock(block)) {
+                if (reservation.reservationId().equals(reservationId)) {
+                    return Optional.of(reservation);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Archived stays that occupy at least one night of {@code [from, to)}.
+     */
+    public List<ArchivedReservation> findOverlapping(LocalDate from, LocalDate to) throws IOException {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        List<ArchivedReservation> found = new ArrayList<>();
+        for (Block block : blocks) {
+            if (!block.overlaps(fromDay, toDay)) {
+                continue;
+            }
+            for (ArchivedReservation reservation : readBlock(block)) {
+                if (reservation.checkIn().toEpochDay() < toDay && fromDay < reservation.checkOut().toEpochDay()) {
+                    found.add(reservation);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Streams every archived reservation, one block in memory at a time.
+     */
+    public void forEach(Consumer<ArchivedReservation> action) throws IOException {
+        for (Block block : blocks) {
+            readBlock(block).forEach(action);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private Block writeBlock(List<ArchivedReservation> chunk) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(chunk.size() * 64);
+        DataOutputStream out = new DataOutputStream(raw);
+        long minCheckIn = Long.MAX_VALUE;
+        long maxCheckOut = Long.MIN_VALUE;
+        long[] bloom = new long[Math.max(1, (chunk.size() * BLOOM_BITS_PER_RECORD + 63) / 64)];
+        for (ArchivedReservation reservation : chunk) {
+            out.writeUTF(reservation.reservationId());
+            out.writeUTF(reservation.guestName());
+            out.writeUTF(reservation.guestEmail());
+            out.writeInt(reservation.roomNumber());
+            out.writeInt(Math.toIntExact(reservation.checkIn().toEpochDay()));
+            out.writeInt(Math.toIntExact(reservation.checkOut().toEpochDay()));
+            out.writeLong(SnapshotFormat.toCents(reservation.totalPrice()));
+            out.writeByte((reservation.paid() ? FLAG_PAID : 0) | (reservation.cancelled() ? FLAG_CANCELLED : 0));
+            minCheckIn = Math.min(minCheckIn, reservation.checkIn().toEpochDay());
+            maxCheckOut = Math.max(maxCheckOut, reservation.checkOut().toEpochDay());
+            addToBloom(bloom, reservation.reservationId());
+        }
+        out.flush();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 3);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+            raw.writeTo(deflate);
+        } finally {
+            deflater.end();
+        }
+        byte[] payload = compressed.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * bloom.length + payload.length);
+        buffer.putInt(BLOCK_MAGIC).putInt(chunk.size()).putInt(raw.size()).putInt(payload.length)
+                .putLong(minCheckIn).putLong(maxCheckOut)
+                .putInt(bloom.length).putInt((int) crc.getValue());
+        for (long word : bloom) {
+            buffer.putLong(word);
+        }
+        buffer.put(payload).flip();
+
+        Block block = new Block(end, chunk.size(), raw.size(), payload.length,
+                minCheckIn, maxCheckOut, (int) crc.getValue(), bloom);
+        long position = end;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        metrics.add(Counter.ARCHIVE_BYTES, position - end);
+        end = position;
+        return block;
+    }
+
+    // Null when the header or the block it describes runs past the end of the file
+    private Block readHeader(long offset, long size) throws IOException {
+        if (size - offset < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = readFully(offset, HEADER_SIZE);
+        if (header.getInt() != BLOCK_MAGIC) {
+            return null;
+        }
+        int count = header.getInt();
+        int rawLength = header.getInt();
+        int compressedLength = header.getInt();
+        long minCheckIn = header.getLong();
+        long maxCheckOut = header.getLong();
+        int bloomWords = header.getInt();
+        int crc = header.getInt();
+        if (offset + HEADER_SIZE + 8L * bloomWords + compressedLength > size) {
+            return null;
+        }
+        long[] bloom = new long[bloomWords];
+        readFully(offset + HEADER_SIZE, 8 * bloomWords).asLongBuffer().get(bloom);
+        return new Block(offset, count, rawLength, compressedLength, minCheckIn, maxCheckOut, crc, bloom);
+    }
+
+    private List<ArchivedReservation> readBlock(Block block) throws IOException {
+        ByteBuffer payload = readFully(block.payloadOffset(), block.compressedLength());
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != block.crc()) {
+            throw new IOException("Corrupt archive block at offset " + block.offset() + " in " + path.getFileName());
+        }
+
+        List<ArchivedReservation> reservations = new ArrayList<>(block.count());
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(payload.array()), inflater))) {
+            for (int i = 0; i < block.count(); i++) {
+                String reservationId = in.readUTF();
+                String guestName = in.readUTF();
+                String guestEmail = in.readUTF();
+                int roomNumber = in.readInt();
+                LocalDate checkIn = LocalDate.ofEpochDay(in.readInt());
+                LocalDate checkOut = LocalDate.ofEpochDay(in.readInt());
+                double totalPrice = SnapshotFormat.fromCents(in.readLong());
+                byte flags = in.readByte();
+                reservations.add(new ArchivedReservation(reservationId, guestName, guestEmail, roomNumber,
+                        checkIn, checkOut, totalPrice, (flags & FLAG_PAID) != 0, (flags & FLAG_CANCELLED) != 0));
+            }
+        } finally {
+            inflater.end();
+        }
+        return reservations;
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + path.getFileName());
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void addToBloom(long[] bloom, String reservationId) {
+        long hash = mix(reservationId.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = 64L * bloom.length;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long[] bloom, String reservationId) {
+        long hash = mix(reservationId.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long bits = 64L * bloom.length;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Spreads String.hashCode over 64 bits (MurmurHash3 finalizer)
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
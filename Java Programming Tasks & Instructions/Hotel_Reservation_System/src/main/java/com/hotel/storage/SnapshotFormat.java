@@ -0,0 +1,277 @@
+package com.hotel.storage;
+
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-width binary snapshot layout.
+ *
+ * <pre>
+ * header       64 bytes   magic, version, covered segment, counts, section offsets,
+ *                         CRC32C of the header fields before it and of everything after the header
+ * rooms        16 bytes   room number, type ordinal, price in cents
+ * reservations 40 bytes   total in cents, id/name/email string refs, room number,
+ *                         check-in and check-out epoch days, status flags
+ * strings      variable   unsigned short length + UTF-8 bytes per entry
+ * archived     variable   long length of the rest of the section;
+ *                         int room count, then per room: room number, long origin day,
+ *                         int word count, occupied-night bitset words;
+ *                         int type count, then per type: type ordinal, long origin day,
+ *                         int night count, per night: int sold, long revenue and paid cents
+ * </pre>
+ *
+ * Reservations are written in id order.
+ * Version 2 files have no archived section, and version 1 files also no
+ * checksum; both are still readable.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x48544C53; // "HTLS"
+    static final short VERSION = 3;
+    static final short NO_ARCHIVED_VERSION = 2;
+    static final short UNCHECKED_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ROOM_RECORD_SIZE = 16;
+    static final int RESERVATION_RECORD_SIZE = 40;
+    static final int FLAG_PAID = 1;
+    static final int FLAG_CANCELLED = 2;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // Header field offsets
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_COVERED_SEGMENT = 8;
+    static final int H_ROOM_COUNT = 16;
+    static final int H_RESERVATION_COUNT = 20;
+    static final int H_ROOMS_OFFSET = 24;
+    static final int H_RESERVATIONS_OFFSET = 32;
+    static final int H_STRINGS_OFFSET = 40;
+    static final int H_STRINGS_LENGTH = 48;
+    static final int H_CHECKSUM = 56;
+
+    // Room record field offsets
+    static final int R_NUMBER = 0;
+    static final int R_TYPE = 4;
+    static final int R_PRICE_CENTS = 8;
+
+    // Reservation record field offsets
+    static final int V_TOTAL_CENTS = 0;
+    static final int V_ID = 8;
+    static final int V_GUEST_NAME = 12;
+    static final int V_GUEST_EMAIL = 16;
+    static final int V_ROOM_NUMBER = 20;
+    static final int V_CHECK_IN = 24;
+    static final int V_CHECK_OUT = 28;
+    static final int V_FLAGS = 32;
+
+    static final int ARCHIVED_NIGHT_SIZE = 20;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long CHECKSUM_CHUNK = 256L * 1024 * 1024;
+
+    private SnapshotFormat() {
+    }
+
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Writes {@code state} to {@code target} and forces it to disk. Strings
+     * are spooled to a side file while records are written, so memory use
+     * does not grow with the size of the string table.
+     */
+    static void write(Path target, HotelStore.State state, long coveredSegment) throws IOException {
+        List<Reservation> reservations = new ArrayList<>(state.reservations());
+        reservations.sort(Comparator.comparing(Reservation::getReservationId));
+
+        Path stringsPath = target.resolveSibling(target.getFileName() + ".strings");
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel strings = FileChannel.open(stringsPath, StandardOpenOption.CREATE,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer records = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+            StringTable table = new StringTable(strings);
+            out.position(HEADER_SIZE);
+
+            long roomsOffset = HEADER_SIZE;
+            for (Room room : state.rooms()) {
+                ensureCapacity(out, records, ROOM_RECORD_SIZE);
+                records.putInt(room.getRoomNumber());
+                records.putInt(room.getType().ordinal());
+                records.putLong(toCents(room.getPricePerNight()));
+            }
+
+            long reservationsOffset = roomsOffset + (long) state.rooms().size() * ROOM_RECORD_SIZE;
+            for (Reservation reservation : reservations) {
+                ensureCapacity(out, records, RESERVATION_RECORD_SIZE);
+                int flags = (reservation.isPaid() ? FLAG_PAID : 0)
+                        | (reservation.isCancelled() ? FLAG_CANCELLED : 0);
+                records.putLong(toCents(reservation.getTotalPrice()));
+                records.putInt(table.add(reservation.getReservationId()));
+                records.putInt(table.add(reservation.getGuestName()));
+                records.putInt(table.add(reservation.getGuestEmail()));
+                records.putInt(reservation.getRoom().getRoomNumber());
+                records.putInt((int) reservation.getCheckInDate().toEpochDay());
+                records.putInt((int) reservation.getCheckOutDate().toEpochDay());
+                records.putInt(flags);
+                records.putInt(0);
+            }
+            drain(out, records);
+            table.flush();
+
+            long stringsOffset = reservationsOffset + (long) reservations.size() * RESERVATION_RECORD_SIZE;
+            long stringsLength = strings.size();
+            long transferred = 0;
+            while (transferred < stringsLength) {
+                transferred += strings.transferTo(transferred, stringsLength - transferred, out);
+            }
+            long archivedLength = writeArchived(out, records, state.archived());
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            header.putInt(H_MAGIC, MAGIC);
+            header.putShort(H_VERSION, VERSION);
+            header.putLong(H_COVERED_SEGMENT, coveredSegment);
+            header.putInt(H_ROOM_COUNT, state.rooms().size());
+            header.putInt(H_RESERVATION_COUNT, reservations.size());
+            header.putLong(H_ROOMS_OFFSET, roomsOffset);
+            header.putLong(H_RESERVATIONS_OFFSET, reservationsOffset);
+            header.putLong(H_STRINGS_OFFSET, stringsOffset);
+            header.putLong(H_STRINGS_LENGTH, stringsLength);
+            header.putInt(H_CHECKSUM, checksum(out, header, stringsOffset + stringsLength + archivedLength));
+            out.write(header, 0);
+            out.force(true);
+        } finally {
+            Files.deleteIfExists(stringsPath);
+        }
+    }
+
+    // Returns the size of the section, length field included
+    private static long writeArchived(FileChannel out, ByteBuffer buffer, ArchivedNights archived)
+            throws IOException {
+        long length = archivedLength(archived);
+        ensureCapacity(out, buffer, 8);
+        buffer.putLong(length);
+
+        ensureCapacity(out, buffer, 4);
+        buffer.putInt(archived.rooms().size());
+        for (ArchivedNights.RoomNights room : archived.rooms()) {
+            ensureCapacity(out, buffer, 16);
+            buffer.putInt(room.roomNumber()).putLong(room.originDay()).putInt(room.occupied().length);
+            for (long word : room.occupied()) {
+                ensureCapacity(out, buffer, 8);
+                buffer.putLong(word);
+            }
+        }
+
+        ensureCapacity(out, buffer, 4);
+        buffer.putInt(archived.types().size());
+        for (ArchivedNights.TypeNights type : archived.types()) {
+            ensureCapacity(out, buffer, 16);
+            buffer.putInt(type.type().ordinal()).putLong(type.originDay()).putInt(type.sold().length);
+            for (int n = 0; n < type.sold().length; n++) {
+                ensureCapacity(out, buffer, ARCHIVED_NIGHT_SIZE);
+                buffer.putInt(type.sold()[n]).putLong(type.revenueCents()[n]).putLong(type.paidCents()[n]);
+            }
+        }
+        drain(out, buffer);
+        return 8 + length;
+    }
+
+    // Bytes after the section's length field: two counts and the per-room and per-type entries
+    private static long archivedLength(ArchivedNights archived) {
+        long length = 8;
+        for (ArchivedNights.RoomNights room : archived.rooms()) {
+            length += 16 + 8L * room.occupied().length;
+        }
+        for (ArchivedNights.TypeNights type : archived.types()) {
+            length += 16 + (long) ARCHIVED_NIGHT_SIZE * type.sold().length;
+        }
+        return length;
+    }
+
+    /**
+     * CRC32C of the header fields before {@link #H_CHECKSUM} followed by
+     * the file from the end of the header to {@code length}.
+     */
+    static int checksum(FileChannel channel, ByteBuffer header, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate().position(0).limit(H_CHECKSUM));
+        for (long position = HEADER_SIZE; position < length; position += CHECKSUM_CHUNK) {
+            long size = Math.min(CHECKSUM_CHUNK, length - position);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void ensureCapacity(FileChannel out, ByteBuffer buffer, int size) throws IOException {
+        if (buffer.remaining() < size) {
+            drain(out, buffer);
+        }
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Appends length-prefixed UTF-8 strings to a side channel and hands back
+     * their offsets.
+     */
+    private static final class StringTable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+        private long size;
+
+        StringTable(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        int add(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("String too long for snapshot: " + bytes.length + " bytes");
+            }
+            if (size + 2 + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot string table exceeds 2 GB");
+            }
+            int offset = (int) size;
+            ensureCapacity(channel, buffer, 2 + Math.min(bytes.length, BUFFER_SIZE - 2));
+            buffer.putShort((short) bytes.length);
+            int written = 0;
+            while (written < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, chunk);
+                written += chunk;
+            }
+            size += 2 + bytes.length;
+            return offset;
+        }
+
+        void flush() throws IOException {
+            drain(channel, buffer);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hotel.transfer;
+
+import com.hotel.api.Json;
+import com.hotel.model.Reservation;
+import com.hotel.model.Room;
+import com.hotel.service.HotelManagementSystem;
+import com.hotel.service.ReservationPage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Streams rooms and reservations out of a hotel as CSV or JSON lines.
+ * Live reservations are fetched a page at a time through the service's
+ * cursor and archived ones a block at a time, so memory use does not depend
+ * on the size of the history.
+ */
+public class HotelExporter {
+    static final String[] ROOM_FIELDS = {"roomNumber", "type", "pricePerNight"};
+    static final String[] RESERVATION_FIELDS = {"reservationId", "guestName", "guestEmail", "roomNumber",
+            "roomType", "checkIn", "checkOut", "totalPrice", "paid", "cancelled"};
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PAGE_SIZE = 1000;
+
+    private final HotelManagementSystem hotel;
+
+    public HotelExporter(HotelManagementSystem hotel) {
+        this.hotel = hotel;
+    }
+
+    public long exportRooms(Path file, TransferFormat format) throws IOException {
+        try (FileChannel channel = openForWrite(file)) {
+            return exportRooms(channel, format);
+        }
+    }
+
+    /**
+     * Writes every room to {@code channel}, which is left open.
+     *
+     * @return the number of rooms written
+     */
+    public long exportRooms(WritableByteChannel channel, TransferFormat format) throws IOException {
+        Writer out = writer(channel);
+        if (format == TransferFormat.CSV) {
+            Csv.writeRecord(out, ROOM_FIELDS);
+        }
+        long count = 0;
+        for (Room room : hotel.getRooms()) {
+            if (format == TransferFormat.CSV) {
+                Csv.writeRecord(out, String.valueOf(room.getRoomNumber()), room.getType().name(),
+                        money(room.getPricePerNight()));
+            } else {
+                out.write(Json.room(room));
+                out.write('\n');
+            }
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    public long exportReservations(Path file, TransferFormat format) throws IOException {
+        try (FileChannel channel = openForWrite(file)) {
+            return exportReservations(channel, format);
+        }
+    }
+
+    /**
+     * Writes every reservation to {@code channel}, which is left open: the
+     * live ones in id order, then the archived ones in archive order, so an
+     * export and import round trip keeps the whole history.
+     *
+     * @return the number of reservations written
+     */
+    public long exportReservations(WritableByteChannel channel, TransferFormat format) throws IOException {
+        Writer out = writer(channel);
+        if (format == TransferFormat.CSV) {
+            Csv.writeRecord(out, RESERVATION_FIELDS);
+        }
+        long count = 0;
+        String cursor = null;
+        do {
+            ReservationPage page = hotel.getReservations(cursor, PAGE_SIZE);
+            for (Reservation reservation : page.reservations()) {
+                writeReservation(out, format, reservation);
+                count++;
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        long[] archived = new long[1];
+        try {
+            hotel.forEachArchivedReservation(reservation -> {
+                try {
+                    writeReservation(out, format, reservation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                archived[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return count + archived[0];
+    }
+
+    private static void writeReservation(Writer out, TransferFormat format, Reservation reservation)
+            throws IOException {
+        if (format == TransferFormat.CSV) {
+            Csv.writeRecord(out, reservation.getReservationId(), reservation.getGuestName(),
+                    reservation.getGuestEmail(), String.valueOf(reservation.getRoom().getRoomNumber()),
+                    reservation.getRoom().getType().name(), reservation.getCheckInDate().toString(),
+                    reservation.getCheckOutDate().toString(), money(reservation.getTotalPrice()),
+                    String.valueOf(reservation.isPaid()), String.valueOf(reservation.isCancelled()));
+        } else {
+            out.write(Json.reservation(reservation));
+            out.write('\n');
+        }
+    }
+
+    private static Writer writer(WritableByteChannel channel) {
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static FileChannel openForWrite(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private static String money(double amount) {
+        return String.format(Locale.ROOT, "%.2f", amount);
+    }
+}
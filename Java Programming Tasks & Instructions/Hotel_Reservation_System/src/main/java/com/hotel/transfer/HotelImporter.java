@@ -0,0 +1,172 @@
+package com.hotel.transfer;
+
+import com.hotel.api.Json;
+import com.hotel.model.Room;
+import com.hotel.model.RoomType;
+import com.hotel.service.HotelManagementSystem;
+import com.hotel.service.ReservationRecord;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams rooms and reservations written by {@link HotelExporter} back into
+ * a hotel. Records are parsed one at a time and handed to the hotel in
+ * fixed-size batches, so only one batch is ever held in memory. CSV columns
+ * are matched by header name and may come in any order.
+ */
+public class HotelImporter {
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final HotelManagementSystem hotel;
+    private final int batchSize;
+
+    public HotelImporter(HotelManagementSystem hotel) {
+        this(hotel, DEFAULT_BATCH_SIZE);
+    }
+
+    public HotelImporter(HotelManagementSystem hotel, int batchSize) {
+        this.hotel = hotel;
+        this.batchSize = batchSize;
+    }
+
+    public ImportResult importRooms(Path file, TransferFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importRooms(channel, format);
+        }
+    }
+
+    public ImportResult importRooms(ReadableByteChannel channel, TransferFormat format) throws IOException {
+        RecordReader in = new RecordReader(channel, format);
+        List<Room> batch = new ArrayList<>(batchSize);
+        long read = 0;
+        long imported = 0;
+        long malformed = 0;
+        Map<String, String> fields;
+        while ((fields = in.next()) != null) {
+            read++;
+            try {
+                batch.add(new Room(Integer.parseInt(required(fields, "roomNumber")),
+                        RoomType.valueOf(required(fields, "type")),
+                        Double.parseDouble(required(fields, "pricePerNight"))));
+            } catch (IllegalArgumentException e) {
+                malformed++;
+            }
+            if (batch.size() == batchSize) {
+                imported += hotel.importRooms(batch);
+                batch.clear();
+            }
+        }
+        imported += hotel.importRooms(batch);
+        return new ImportResult(read, imported, malformed);
+    }
+
+    public ImportResult importReservations(Path file, TransferFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importReservations(channel, format);
+        }
+    }
+
+    /**
+     * Imports reservations for rooms that already exist in the hotel, so
+     * rooms should be imported first.
+     */
+    public ImportResult importReservations(ReadableByteChannel channel, TransferFormat format) throws IOException {
+        RecordReader in = new RecordReader(channel, format);
+        List<ReservationRecord> batch = new ArrayList<>(batchSize);
+        long read = 0;
+        long imported = 0;
+        long malformed = 0;
+        Map<String, String> fields;
+        while ((fields = in.next()) != null) {
+            read++;
+            try {
+                batch.add(new ReservationRecord(required(fields, "reservationId"),
+                        required(fields, "guestName"), required(fields, "guestEmail"),
+                        Integer.parseInt(required(fields, "roomNumber")),
+                        LocalDate.parse(required(fields, "checkIn")),
+                        LocalDate.parse(required(fields, "checkOut")),
+                        Double.parseDouble(required(fields, "totalPrice")),
+                        Boolean.parseBoolean(fields.get("paid")),
+                        Boolean.parseBoolean(fields.get("cancelled"))));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                malformed++;
+            }
+            if (batch.size() == batchSize) {
+                imported += hotel.importReservations(batch);
+                batch.clear();
+            }
+        }
+        imported += hotel.importReservations(batch);
+        return new ImportResult(read, imported, malformed);
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    // Yields each record as field name -> value, whatever the format
+    private static final class RecordReader {
+        private final BufferedReader in;
+        private final TransferFormat format;
+        private List<String> header;
+
+        RecordReader(ReadableByteChannel channel, TransferFormat format) {
+            this.in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8),
+                    HotelExporter.BUFFER_SIZE);
+            this.format = format;
+        }
+
+        Map<String, String> next() throws IOException {
+            if (format == TransferFormat.JSON_LINES) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        try {
+                            return Json.parseObject(line);
+                        } catch (IllegalArgumentException e) {
+                            return Map.of();
+                        }
+                    }
+                }
+                return null;
+            }
+
+            if (header == null) {
+                header = Csv.readRecord(in);
+                if (header == null) {
+                    return null;
+                }
+            }
+            List<String> values;
+            try {
+                values = Csv.readRecord(in);
+            } catch (IllegalArgumentException e) {
+                return Map.of();
+            }
+            if (values == null) {
+                return null;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.hotel.transfer;
+
+/**
+ * Outcome of an import: records read, records added to the hotel, and
+ * records that could not be parsed. The rest were rejected by the hotel,
+ * e.g. duplicates or clashing stays.
+ */
+public record ImportResult(long read, long imported, long malformed) {
+
+    public long skipped() {
+        return read - imported;
+    }
+}
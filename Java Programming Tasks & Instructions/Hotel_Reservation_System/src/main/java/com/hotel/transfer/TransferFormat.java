@@ -0,0 +1,10 @@
+package com.hotel.transfer;
+
+/**
+ * File formats for bulk export and import. CSV files start with a header
+ * row; JSON lines hold one object per line with the same fields.
+ */
+public enum TransferFormat {
+    CSV,
+    JSON_LINES
+}